@@ -0,0 +1,106 @@
+package com.example.api_gestion_pals.benchmark;
+
+import com.example.api_gestion_pals.MyApplication;
+import com.example.api_gestion_pals.model.PalEntity;
+import com.example.api_gestion_pals.service.PalBatchService;
+import com.example.api_gestion_pals.service.PalMapper;
+import com.example.api_gestion_pals.service.PalService;
+import com.example.api_gestion_pals.service.entity.Pal;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Débit d'écriture en pals/seconde : {@link PalService#save(PalEntity)} appelé pal par pal
+ * (comme POST /pals ou PUT /pals/{id}) face à {@link PalBatchService} (POST/PUT /pals/batch).
+ * Chaque invocation écrit {@link #BATCH} pals ; le score est ramené à un pal par {@code @OperationsPerInvocation}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PalBatchBenchmark {
+
+    private static final int BATCH = 1000;
+
+    private ConfigurableApplicationContext context;
+    private PalService palService;
+    private PalBatchService palBatchService;
+    private List<Pal> pals;
+    private int nextId;
+
+    @Setup(Level.Trial)
+    public void startApplication() throws Exception {
+        // 10 fois pals.json : assez de pals existants pour un lot de mise à jour complet
+        pals = SyntheticPals.generate(10);
+        Path dataset = SyntheticPals.writeJson(pals);
+        context = new SpringApplicationBuilder(MyApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(SyntheticPals.arguments(
+                        "pals.import.location=" + dataset.toUri(),
+                        "spring.datasource.url=jdbc:h2:mem:benchmark-batch",
+                        "spring.jpa.show-sql=false",
+                        "spring.h2.console.enabled=false",
+                        "logging.level.root=WARN"));
+        palService = context.getBean(PalService.class);
+        palBatchService = context.getBean(PalBatchService.class);
+        nextId = pals.stream().mapToInt(Pal::id).max().orElse(0) + 1;
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void createSingle() {
+        newPals().forEach(palService::save);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void createBatch() {
+        palBatchService.createAll(newPals());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void updateSingle() {
+        existingPals().forEach(palService::save);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void updateBatch() {
+        palBatchService.updateAll(existingPals());
+    }
+
+    private List<PalEntity> newPals() {
+        List<PalEntity> batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            Pal template = pals.get(i);
+            int id = nextId++;
+            batch.add(PalMapper.toEntity(SyntheticPals.renumber(template, id - template.id(), "-bench-" + id)));
+        }
+        return batch;
+    }
+
+    private List<PalEntity> existingPals() {
+        List<PalEntity> batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            PalEntity pal = PalMapper.toEntity(pals.get(i));
+            pal.setPrice(pal.getPrice() + 1);
+            batch.add(pal);
+        }
+        return batch;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.api_gestion_pals.benchmark;
+
+import com.example.api_gestion_pals.model.PalEntity;
+import com.example.api_gestion_pals.service.PalCatalog;
+import com.example.api_gestion_pals.service.PalMapper;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Réponse de GET /pals (tout le catalogue, {@code scale} fois pals.json) dans chaque format négociable :
+ * temps d'encodage et de décodage, et taille du corps brut et compressé en gzip (compteurs {@link Size},
+ * en octets, identiques à chaque itération).
+ * Les ObjectMapper sont construits comme dans BinaryFormatsConfig, à partir du même builder que JSON.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PalFormatBenchmark {
+
+    private static final TypeReference<List<PalEntity>> PALS = new TypeReference<>() {
+    };
+
+    @Param({"json", "cbor", "smile", "msgpack"})
+    public String format;
+
+    @Param({"1", "10", "100"})
+    public int scale;
+
+    private ObjectMapper mapper;
+    private List<PalEntity> entities;
+    private byte[] encoded;
+    private int gzipped;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Size {
+        public long bytes;
+        public long gzipBytes;
+    }
+
+    @Setup(Level.Trial)
+    public void generate() throws Exception {
+        JsonFactory factory = switch (format) {
+            case "json" -> new JsonFactory();
+            case "cbor" -> new CBORFactory();
+            case "smile" -> new SmileFactory();
+            case "msgpack" -> new MessagePackFactory();
+            default -> throw new IllegalArgumentException(format);
+        };
+        mapper = Jackson2ObjectMapperBuilder.json().factory(factory).build();
+        // Même forme que les réponses de l'API : copies détachées tirées du catalogue
+        entities = PalCatalog.of(SyntheticPals.generate(scale).stream().map(PalMapper::toEntity).toList()).findAll();
+        encoded = mapper.writeValueAsBytes(entities);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(encoded);
+        }
+        gzipped = compressed.size();
+    }
+
+    @Benchmark
+    public byte[] encode(Size size) throws Exception {
+        byte[] body = mapper.writeValueAsBytes(entities);
+        size.bytes = body.length;
+        size.gzipBytes = gzipped;
+        return body;
+    }
+
+    @Benchmark
+    public List<PalEntity> decode() throws Exception {
+        return mapper.readValue(encoded, PALS);
+    }
+}
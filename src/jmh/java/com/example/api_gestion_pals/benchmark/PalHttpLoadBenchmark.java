@@ -0,0 +1,119 @@
+package com.example.api_gestion_pals.benchmark;
+
+import com.example.api_gestion_pals.MyApplication;
+import com.example.api_gestion_pals.model.PalEntity;
+import com.example.api_gestion_pals.service.PalMapper;
+import com.example.api_gestion_pals.service.entity.Pal;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Charge HTTP à forte concurrence sur l'application démarrée avec Tomcat : pool de threads de plateforme
+ * par défaut face au profil virtual-threads. {@link #CLIENTS} clients envoient leurs requêtes en continu ;
+ * le mode Throughput donne le débit, le mode SampleTime la distribution des latences (p99, p99.9).
+ * <p>
+ * Les requêtes lentes sont celles qui saturent le pool : GET /pals sérialise tout le catalogue
+ * (10 fois pals.json), PUT /pals/{id} attend les verrous de la base. Deux PUT simultanés du même pal se
+ * terminent en 409 pour le perdant : les compteurs {@link Writes} séparent ces conflits des écritures réussies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(PalHttpLoadBenchmark.CLIENTS)
+@Fork(1)
+public class PalHttpLoadBenchmark {
+
+    static final int CLIENTS = 512;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private URI baseUri;
+    private List<Pal> pals;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Writes {
+        public long written;
+        public long conflicts;
+    }
+
+    @Setup(Level.Trial)
+    public void startServer() throws Exception {
+        pals = SyntheticPals.generate(10);
+        Path dataset = SyntheticPals.writeJson(pals);
+        SpringApplicationBuilder application = new SpringApplicationBuilder(MyApplication.class);
+        String[] arguments = SyntheticPals.arguments(
+                "server.port=0",
+                "pals.import.location=" + dataset.toUri(),
+                "spring.datasource.url=jdbc:h2:mem:benchmark-http-" + threads,
+                "spring.jpa.show-sql=false",
+                "spring.h2.console.enabled=false",
+                "logging.level.root=WARN");
+        if (threads.equals("virtual")) {
+            application.profiles("virtual-threads");
+        }
+        context = application.run(arguments);
+        baseUri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port"));
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopServer() {
+        client.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int getAll() throws Exception {
+        return send(HttpRequest.newBuilder(baseUri.resolve("/pals")).GET());
+    }
+
+    @Benchmark
+    public int getById() throws Exception {
+        return send(HttpRequest.newBuilder(baseUri.resolve("/pals/" + randomPal().id())).GET());
+    }
+
+    @Benchmark
+    public int update(Writes writes) throws Exception {
+        Pal pal = randomPal();
+        PalEntity update = PalMapper.toEntity(pal);
+        update.setPrice(pal.price() + ThreadLocalRandom.current().nextInt(1, 100));
+        int status = send(HttpRequest.newBuilder(baseUri.resolve("/pals/" + pal.id()))
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofByteArray(SyntheticPals.OBJECT_MAPPER.writeValueAsBytes(update))));
+        if (status == 200) {
+            writes.written++;
+        } else if (status == 409) {
+            writes.conflicts++;
+        }
+        return status;
+    }
+
+    private int send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        HttpResponse<Void> response = client.send(request.build(), HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() >= 500) {
+            throw new IllegalStateException("Réponse " + response.statusCode() + " pour " + response.uri());
+        }
+        return response.statusCode();
+    }
+
+    private Pal randomPal() {
+        return pals.get(ThreadLocalRandom.current().nextInt(pals.size()));
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.api_gestion_pals.benchmark;
+
+import com.example.api_gestion_pals.model.PalEntity;
+import com.example.api_gestion_pals.service.PalCatalog;
+import com.example.api_gestion_pals.service.PalMapper;
+import com.example.api_gestion_pals.service.entity.Pal;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Couche JSON sans base ni contexte Spring : conversion des enregistrements de pals.json en entités
+ * et sérialisation Jackson des graphes de {@link PalEntity} servis par les endpoints de liste.
+ * Chaque opération porte sur tout le jeu de données ({@code scale} fois pals.json).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PalJsonBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    public int scale;
+
+    private List<Pal> pals;
+    private List<PalEntity> entities;
+    private PalEntity single;
+
+    @Setup(Level.Trial)
+    public void generate() throws Exception {
+        pals = SyntheticPals.generate(scale);
+        // Même forme que les réponses de l'API : copies détachées tirées du catalogue
+        entities = PalCatalog.of(pals.stream().map(PalMapper::toEntity).toList()).findAll();
+        single = entities.get(0);
+    }
+
+    @Benchmark
+    public List<PalEntity> toEntity() {
+        return pals.stream().map(PalMapper::toEntity).toList();
+    }
+
+    @Benchmark
+    public byte[] serializeAll() throws Exception {
+        return SyntheticPals.OBJECT_MAPPER.writeValueAsBytes(entities);
+    }
+
+    @Benchmark
+    public byte[] serializeOne() throws Exception {
+        return SyntheticPals.OBJECT_MAPPER.writeValueAsBytes(single);
+    }
+}
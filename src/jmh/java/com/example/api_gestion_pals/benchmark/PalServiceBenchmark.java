@@ -0,0 +1,150 @@
+package com.example.api_gestion_pals.benchmark;
+
+import com.example.api_gestion_pals.MyApplication;
+import com.example.api_gestion_pals.model.PalEntity;
+import com.example.api_gestion_pals.service.PalMapper;
+import com.example.api_gestion_pals.service.PalService;
+import com.example.api_gestion_pals.service.PalSuggestion;
+import com.example.api_gestion_pals.service.PalTraitFilter;
+import com.example.api_gestion_pals.service.entity.Pal;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lectures et écritures de {@link PalService} sur une application démarrée (H2 en mémoire, sans couche web),
+ * le catalogue étant importé depuis un jeu de données de {@code scale} fois pals.json.
+ * Les écritures incluent le commit et la mise à jour du catalogue en mémoire qui le suit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PalServiceBenchmark {
+
+    private static final String[] TYPES = {"neutral", "fire", "water", "grass", "electric", "ice", "ground", "dark", "dragon"};
+    private static final String[] SUITABILITIES = {"kindling", "watering", "planting", "handiwork", "mining", "transporting"};
+
+    @Param({"1", "10", "100", "1000"})
+    public int scale;
+
+    private ConfigurableApplicationContext context;
+    private PalService palService;
+    private List<Pal> pals;
+    private AtomicInteger nextId;
+
+    @Setup(Level.Trial)
+    public void startApplication() throws Exception {
+        pals = SyntheticPals.generate(scale);
+        Path dataset = SyntheticPals.writeJson(pals);
+        context = new SpringApplicationBuilder(MyApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(SyntheticPals.arguments(
+                        "pals.import.location=" + dataset.toUri(),
+                        "spring.datasource.url=jdbc:h2:mem:benchmark-" + scale,
+                        "spring.jpa.show-sql=false",
+                        "spring.h2.console.enabled=false",
+                        "logging.level.root=WARN"));
+        palService = context.getBean(PalService.class);
+        nextId = new AtomicInteger(pals.stream().mapToInt(Pal::id).max().orElse(0) + 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<PalEntity> getById() {
+        return palService.getById(randomPal().id());
+    }
+
+    @Benchmark
+    public Optional<PalEntity> getByName() {
+        return palService.getByName(randomPal().name());
+    }
+
+    @Benchmark
+    public List<PalEntity> getByType() {
+        return palService.getByType(TYPES[ThreadLocalRandom.current().nextInt(TYPES.length)]);
+    }
+
+    // Type ET aptitude de niveau >= 2, résolus par les bitmaps du catalogue
+    @Benchmark
+    public List<PalEntity> getByTraits() {
+        return palService.getByTraits(randomTraitFilter());
+    }
+
+    @Benchmark
+    public int countByTraits() {
+        return palService.countByTraits(randomTraitFilter());
+    }
+
+    // Distribution des temps (p99 dans le rapport) : début de nom, ou nom avec une lettre remplacée
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    public List<PalSuggestion> suggest() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String name = randomPal().name();
+        String query = name.substring(0, Math.min(name.length(), random.nextInt(2, 7)));
+        if (random.nextBoolean() && query.length() > 3) {
+            query = query.substring(0, 2) + 'x' + query.substring(3);
+        }
+        return palService.suggest(query, 10);
+    }
+
+    @Benchmark
+    public List<PalEntity> getAll() {
+        return palService.getAll();
+    }
+
+    @Benchmark
+    public List<PalEntity> getSortedByRarity() {
+        return palService.getSortedByRarity(20, 0, null);
+    }
+
+    @Benchmark
+    public List<PalEntity> getSortedByPrice() {
+        return palService.getSortedByPrice(20, 0, null);
+    }
+
+    /**
+     * Chaque appel ajoute un pal (clé et nom uniques) : le catalogue grossit au fil des itérations.
+     */
+    @Benchmark
+    public PalEntity saveCreate() {
+        int id = nextId.getAndIncrement();
+        Pal template = randomPal();
+        return palService.save(PalMapper.toEntity(new Pal(id, "bench-" + id, "Bench" + id, template.wiki(),
+                template.types(), template.suitability(), template.skills(), template.stats(),
+                template.rarity(), template.price(), template.size())));
+    }
+
+    @Benchmark
+    public PalEntity saveUpdate() {
+        Pal existing = randomPal();
+        PalEntity update = PalMapper.toEntity(existing);
+        update.setPrice(existing.price() + ThreadLocalRandom.current().nextInt(1, 100));
+        return palService.save(update);
+    }
+
+    private static PalTraitFilter randomTraitFilter() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return new PalTraitFilter(List.of(TYPES[random.nextInt(TYPES.length)]), false, List.of(),
+                SUITABILITIES[random.nextInt(SUITABILITIES.length)], 2);
+    }
+
+    private Pal randomPal() {
+        return pals.get(ThreadLocalRandom.current().nextInt(pals.size()));
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.api_gestion_pals.benchmark;
+
+import com.example.api_gestion_pals.MyApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Temps de démarrage jusqu'à l'application prête (base importée, catalogue en mémoire) : import de pals.json
+ * face à la restauration de l'image binaire écrite par un démarrage précédent ({@code pals.snapshot.location}).
+ * Chaque mesure démarre l'application sur une base H2 neuve, comme un redémarrage avec ddl-auto create-drop.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PalStartupBenchmark {
+
+    @Param({"json", "snapshot"})
+    public String source;
+
+    @Param({"1", "10", "100"})
+    public int scale;
+
+    private Path dataset;
+    private Path snapshot;
+    private int run;
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void prepare() throws Exception {
+        dataset = SyntheticPals.writeJson(SyntheticPals.generate(scale));
+        snapshot = Files.createTempDirectory("pals-snapshot").resolve("pals.snapshot");
+        if (source.equals("snapshot")) {
+            // Premier démarrage : import du JSON et écriture de l'image
+            start().close();
+        }
+    }
+
+    @Benchmark
+    public void startUntilReady() {
+        context = start();
+    }
+
+    @TearDown(Level.Iteration)
+    public void stop() {
+        if (context != null) {
+            context.close();
+            context = null;
+        }
+    }
+
+    private ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(MyApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(SyntheticPals.arguments(
+                        "pals.import.location=" + dataset.toUri(),
+                        // Sans image : le chemin json n'en écrit pas et relit toujours pals.json
+                        "pals.snapshot.location=" + (source.equals("snapshot") ? snapshot : ""),
+                        "spring.datasource.url=jdbc:h2:mem:benchmark-startup-" + run++,
+                        "spring.jpa.show-sql=false",
+                        "spring.h2.console.enabled=false",
+                        "logging.level.root=WARN",
+                        // Ligne « Import (json|snapshot) terminé en … ms » : durée de l'import seul, hors démarrage
+                        "logging.level.com.example.api_gestion_pals.config.PalDataLoader=INFO"));
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.api_gestion_pals.benchmark;
+
+import com.example.api_gestion_pals.DAO.PalSearchCriteria;
+import com.example.api_gestion_pals.MyApplication;
+import com.example.api_gestion_pals.model.PalEntity;
+import com.example.api_gestion_pals.service.PalMapper;
+import com.example.api_gestion_pals.service.PalStore;
+import com.example.api_gestion_pals.service.entity.Pal;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accès directs au stockage, sans le catalogue en mémoire : tables JPA (H2) face au profil mongo
+ * (un document par pal). Chaque appel passe dans une transaction, comme depuis PalService, et parcourt
+ * les enfants du pal lu pour que les deux stockages chargent la même chose.
+ * <p>
+ * Le profil mongo vise le serveur de {@code -Dpals.benchmark.mongo-uri=mongodb://hôte:27017/base} (base supprimée
+ * à la fin du benchmark) ; sans cette propriété, un serveur en mémoire (mongo-java-server) démarré dans le JVM
+ * du benchmark. Ce dernier mesure le coût côté application (requêtes, conversion des documents), pas le moteur
+ * de stockage de MongoDB.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PalStoreBenchmark {
+
+    private static final String[] TYPES = {"neutral", "fire", "water", "grass", "electric", "ice", "ground", "dark", "dragon"};
+    private static final String[] SUITABILITIES = {"kindling", "watering", "planting", "handiwork", "mining", "transporting"};
+
+    @Param({"jpa", "mongo"})
+    public String store;
+
+    @Param({"10"})
+    public int scale;
+
+    private MongoServer mongoServer;
+    private ConfigurableApplicationContext context;
+    private PalStore palStore;
+    private TransactionTemplate transaction;
+    private List<Pal> pals;
+
+    @Setup(Level.Trial)
+    public void startApplication() throws Exception {
+        pals = SyntheticPals.generate(scale);
+        Path dataset = SyntheticPals.writeJson(pals);
+        String mongoUri = System.getProperty("pals.benchmark.mongo-uri");
+        if (store.equals("mongo") && mongoUri == null) {
+            mongoServer = new MongoServer(new MemoryBackend());
+            mongoUri = mongoServer.bindAndGetConnectionString() + "/pals-benchmark";
+        }
+        SpringApplicationBuilder application = new SpringApplicationBuilder(MyApplication.class)
+                .web(WebApplicationType.NONE);
+        String[] arguments = SyntheticPals.arguments(
+                "pals.import.location=" + dataset.toUri(),
+                "spring.datasource.url=jdbc:h2:mem:benchmark-store-" + store,
+                "spring.data.mongodb.uri=" + mongoUri,
+                "spring.jpa.show-sql=false",
+                "spring.h2.console.enabled=false",
+                "logging.level.root=WARN");
+        if (store.equals("mongo")) {
+            application.profiles("mongo");
+        }
+        context = application.run(arguments);
+        palStore = context.getBean(PalStore.class);
+        transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        if (store.equals("mongo")) {
+            // Base supprimée : le prochain lancement réimporte ce jeu de données
+            context.getBean(MongoTemplate.class).getDb().drop();
+        }
+        context.close();
+        if (mongoServer != null) {
+            mongoServer.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    public int findById() {
+        return transaction.execute(status -> palStore.findById(randomPal().id())
+                .map(PalStoreBenchmark::children)
+                .orElseThrow());
+    }
+
+    // Page de 100 pals par clé, comme GET /pals/page
+    @Benchmark
+    public int findPage() {
+        int after = randomPal().id() - 1;
+        return transaction.execute(status -> palStore.findPage(after, 100).stream()
+                .mapToInt(PalStoreBenchmark::children)
+                .sum());
+    }
+
+    // Type ET aptitude de niveau >= 2, PV >= 70 : sous-requêtes EXISTS en JPA, $elemMatch sur les index en mongo
+    @Benchmark
+    public long search() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        PalSearchCriteria criteria = new PalSearchCriteria(List.of(TYPES[random.nextInt(TYPES.length)]), false,
+                SUITABILITIES[random.nextInt(SUITABILITIES.length)], 2, null, null,
+                Map.of("hp", PalSearchCriteria.Range.parse("70..")));
+        return transaction.execute(status -> {
+            Page<PalEntity> page = palStore.search(criteria, PageRequest.of(0, 20, Sort.by("price").descending()));
+            return page.getTotalElements();
+        });
+    }
+
+    // PUT d'un pal dont seul le prix change : fusion des colonnes en JPA, remplacement du document en mongo
+    @Benchmark
+    public long update() {
+        Pal pal = randomPal();
+        PalEntity update = PalMapper.toEntity(pal);
+        update.setPrice(pal.price() + ThreadLocalRandom.current().nextInt(1, 100));
+        return transaction.execute(status -> palStore.update(update).getVersion());
+    }
+
+    private static int children(PalEntity pal) {
+        return pal.getTypes().size() + pal.getSkills().size() + pal.getSuitabilities().size();
+    }
+
+    private Pal randomPal() {
+        return pals.get(ThreadLocalRandom.current().nextInt(pals.size()));
+    }
+}
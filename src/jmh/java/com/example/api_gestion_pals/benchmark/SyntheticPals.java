@@ -0,0 +1,67 @@
+package com.example.api_gestion_pals.benchmark;
+
+import com.example.api_gestion_pals.service.entity.Pal;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Jeux de données des benchmarks : pals.json tel quel (échelle 1) ou recopié {@code scale} fois,
+ * chaque copie recevant des ids, clés et noms distincts pour rester importable.
+ */
+final class SyntheticPals {
+
+    // Mêmes réglages par défaut que l'ObjectMapper de Spring Boot (champs inconnus ignorés...)
+    static final ObjectMapper OBJECT_MAPPER = Jackson2ObjectMapperBuilder.json().build();
+
+    private SyntheticPals() {
+    }
+
+    static List<Pal> generate(int scale) throws IOException {
+        List<Pal> base;
+        try (InputStream in = new ClassPathResource("pals.json").getInputStream()) {
+            base = OBJECT_MAPPER.readValue(in, new TypeReference<List<Pal>>() {});
+        }
+        int stride = base.stream().mapToInt(Pal::id).max().orElse(0);
+        List<Pal> pals = new ArrayList<>(base.size() * scale);
+        for (int copy = 0; copy < scale; copy++) {
+            for (Pal pal : base) {
+                pals.add(copy == 0 ? pal : renumber(pal, copy * stride, "-" + copy));
+            }
+        }
+        return pals;
+    }
+
+    /**
+     * Écrit le jeu de données dans un fichier temporaire au format de pals.json, pour {@code pals.import.location}.
+     */
+    static Path writeJson(List<Pal> pals) throws IOException {
+        Path file = Files.createTempFile("pals-", ".json");
+        file.toFile().deleteOnExit();
+        OBJECT_MAPPER.writeValue(file.toFile(), pals);
+        return file;
+    }
+
+    /**
+     * Propriétés de lancement en arguments de ligne de commande : passées par
+     * {@code SpringApplicationBuilder.properties}, elles ne seraient que des valeurs par défaut, masquées par
+     * application.yaml ({@code pals.import.location} notamment, et le jeu de données resterait pals.json).
+     */
+    static String[] arguments(String... properties) {
+        return Arrays.stream(properties).map(property -> "--" + property).toArray(String[]::new);
+    }
+
+    static Pal renumber(Pal pal, int idOffset, String suffix) {
+        return new Pal(pal.id() + idOffset, pal.key() + suffix, pal.name() + suffix, pal.wiki(), pal.types(),
+                pal.suitability(), pal.skills(), pal.stats(), pal.rarity(), pal.price(), pal.size());
+    }
+}
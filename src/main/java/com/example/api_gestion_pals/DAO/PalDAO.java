@@ -1,15 +1,42 @@
 package com.example.api_gestion_pals.DAO;
 
 import com.example.api_gestion_pals.model.PalEntity;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface PalDAO extends JpaRepository<PalEntity, Integer> {
+public interface PalDAO extends JpaRepository<PalEntity, Integer>, JpaSpecificationExecutor<PalEntity> {
 
     Optional<PalEntity> findByNameIgnoreCase(String name);
 
+    // Listes : stats chargées par jointure, collections enfants par sous-requête (@Fetch SUBSELECT),
+    // soit un nombre de requêtes constant quelle que soit la taille du catalogue
+    @Override
+    @EntityGraph(PalEntity.WITH_STATS)
+    List<PalEntity> findAll();
+
+    @EntityGraph(PalEntity.WITH_STATS)
     List<PalEntity> findByTypes_TypeIgnoreCase(String type);
 
+    // Recherche multicritère (PalSpecifications) : une requête paginée + son comptage
+    @Override
+    @EntityGraph(PalEntity.WITH_STATS)
+    Page<PalEntity> findAll(Specification<PalEntity> spec, Pageable pageable);
+
+    // Lots (écritures groupées, rafraîchissement du catalogue) : mêmes requêtes constantes que findAll
+    @EntityGraph(PalEntity.WITH_STATS)
+    List<PalEntity> findByIdIn(Collection<Integer> ids);
+
+    // Pagination par clé sur l'id (clé primaire) : coût constant quelle que soit la page
+    @EntityGraph(PalEntity.WITH_STATS)
+    List<PalEntity> findByIdGreaterThanOrderByIdAsc(int after, Limit limit);
+
 }
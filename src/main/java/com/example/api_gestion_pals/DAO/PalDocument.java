@@ -0,0 +1,206 @@
+package com.example.api_gestion_pals.DAO;
+
+import com.example.api_gestion_pals.model.*;
+import com.example.api_gestion_pals.service.entity.Attack;
+import com.example.api_gestion_pals.service.entity.Speed;
+import com.example.api_gestion_pals.service.entity.Stat;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Pal stocké en un seul document (profil {@code mongo}) : types, aptitudes, compétences et stats sont
+ * imbriqués, une lecture suffit à reconstituer le pal.
+ * <p>
+ * Chaque type, aptitude et compétence garde l'id attribué à son premier enregistrement, pour que
+ * /pals/{id}/types/{typeId} et /pals/{id}/skills/{skillId} désignent toujours le même enfant. Un nouvel
+ * enfant reçoit {@code (version << 20) + rang} parmi les nouveaux de sa liste : chaque version n'étant
+ * écrite qu'une fois, un id n'est jamais réattribué à un autre enfant de la liste, même après un retrait.
+ * À l'import (version 0), les ids de chaque liste valent donc 1, 2, 3...
+ * <p>
+ * Index : nom, types (index multiclé) et aptitudes par type puis niveau, pour GET /pals/search.
+ * La version est gérée par le stockage (écritures conditionnées à la version lue), pas par Spring Data.
+ */
+@Document("pals")
+@CompoundIndexes({
+        @CompoundIndex(name = "idx_pals_types", def = "{'types.type': 1}"),
+        @CompoundIndex(name = "idx_pals_suitability_type_level", def = "{'suitability.type': 1, 'suitability.level': -1}")
+})
+public record PalDocument(
+        @Id int id,
+        String key,
+        @Indexed(name = "idx_pals_name") String name,
+        String wiki,
+        List<TypeEntry> types,
+        List<SuitabilityEntry> suitability,
+        List<SkillEntry> skills,
+        Stat stats,
+        Integer rarity,
+        Integer price,
+        String size,
+        long version
+) {
+
+    private static final int CHILD_ID_BITS = 20;
+
+    public record TypeEntry(long id, String type) {
+    }
+
+    public record SuitabilityEntry(long id, String type, Integer level) {
+    }
+
+    public record SkillEntry(long id, Integer level, String name, String type, Integer cooldown, Integer power,
+                             String description) {
+    }
+
+    /**
+     * Pal détaché équivalent, enfants et stats rattachés ; les stats prennent l'id du pal.
+     */
+    public PalEntity toEntity() {
+        PalEntity pal = new PalEntity();
+        pal.setId(id);
+        pal.setPalKey(key);
+        pal.setName(name);
+        pal.setWiki(wiki);
+        pal.setRarity(rarity);
+        pal.setPrice(price);
+        pal.setSize(size);
+        pal.setVersion(version);
+        if (types != null) {
+            for (TypeEntry entry : types) {
+                PalTypeEntity type = new PalTypeEntity();
+                type.setId(entry.id());
+                type.setType(entry.type());
+                type.setPal(pal);
+                pal.getTypes().add(type);
+            }
+        }
+        if (suitability != null) {
+            for (SuitabilityEntry entry : suitability) {
+                PalSuitabilityEntity suitabilityEntity = new PalSuitabilityEntity();
+                suitabilityEntity.setId(entry.id());
+                suitabilityEntity.setType(entry.type());
+                suitabilityEntity.setLevel(entry.level());
+                suitabilityEntity.setPal(pal);
+                pal.getSuitabilities().add(suitabilityEntity);
+            }
+        }
+        if (skills != null) {
+            for (SkillEntry entry : skills) {
+                PalSkillEntity skill = new PalSkillEntity();
+                skill.setId(entry.id());
+                skill.setLevel(entry.level());
+                skill.setName(entry.name());
+                skill.setType(entry.type());
+                skill.setCooldown(entry.cooldown());
+                skill.setPower(entry.power());
+                skill.setDescription(entry.description());
+                skill.setPal(pal);
+                pal.getSkills().add(skill);
+            }
+        }
+        if (stats != null) {
+            pal.setStats(statEntity(stats, pal));
+        }
+        return pal;
+    }
+
+    /**
+     * Document du pal à la version {@code version}. Les enfants sans id en reçoivent un nouveau, également
+     * reporté sur {@code pal} ; ceux qui en ont un le gardent.
+     */
+    public static PalDocument of(PalEntity pal, long version) {
+        return new PalDocument(
+                pal.getId(),
+                pal.getPalKey(),
+                pal.getName(),
+                pal.getWiki(),
+                entries(pal.getTypes(), PalTypeEntity::getId, PalTypeEntity::setId, version,
+                        (id, type) -> new TypeEntry(id, type.getType())),
+                entries(pal.getSuitabilities(), PalSuitabilityEntity::getId, PalSuitabilityEntity::setId, version,
+                        (id, s) -> new SuitabilityEntry(id, s.getType(), s.getLevel())),
+                entries(pal.getSkills(), PalSkillEntity::getId, PalSkillEntity::setId, version,
+                        (id, s) -> new SkillEntry(id, s.getLevel(), s.getName(), s.getType(), s.getCooldown(),
+                                s.getPower(), s.getDescription())),
+                stat(pal.getStats()),
+                pal.getRarity(),
+                pal.getPrice(),
+                pal.getSize(),
+                version);
+    }
+
+    /**
+     * Même document avec d'autres listes ou stats ; sert à conserver celles que l'écriture ne fournit pas.
+     */
+    public PalDocument withDefaults(PalDocument current) {
+        return new PalDocument(id, key, name, wiki,
+                types == null ? current.types() : types,
+                suitability == null ? current.suitability() : suitability,
+                skills == null ? current.skills() : skills,
+                stats == null ? current.stats() : stats,
+                rarity, price, size, version);
+    }
+
+    private static <T, E> List<E> entries(List<T> children, Function<T, Long> id, BiConsumer<T, Long> setId,
+                                          long version, BiFunction<Long, T, E> entry) {
+        if (children == null) {
+            return null;
+        }
+        long lastId = version << CHILD_ID_BITS;
+        List<E> entries = new ArrayList<>(children.size());
+        for (T child : children) {
+            if (id.apply(child) == null) {
+                setId.accept(child, ++lastId);
+            }
+            entries.add(entry.apply(id.apply(child), child));
+        }
+        return entries;
+    }
+
+    private static Stat stat(PalStatEntity stats) {
+        if (stats == null) {
+            return null;
+        }
+        return new Stat(
+                orZero(stats.getHp()),
+                new Attack(orZero(stats.getMeleeAttack()), orZero(stats.getRangedAttack())),
+                orZero(stats.getDefense()),
+                new Speed(orZero(stats.getRideSpeed()), orZero(stats.getRunSpeed()), orZero(stats.getWalkSpeed())),
+                orZero(stats.getStamina()),
+                orZero(stats.getSupport()),
+                orZero(stats.getFood()));
+    }
+
+    private static PalStatEntity statEntity(Stat stats, PalEntity pal) {
+        PalStatEntity entity = new PalStatEntity();
+        entity.setId((long) pal.getId());
+        entity.setHp(stats.hp());
+        if (stats.attack() != null) {
+            entity.setMeleeAttack(stats.attack().melee());
+            entity.setRangedAttack(stats.attack().ranged());
+        }
+        entity.setDefense(stats.defense());
+        if (stats.speed() != null) {
+            entity.setRideSpeed(stats.speed().ride());
+            entity.setRunSpeed(stats.speed().run());
+            entity.setWalkSpeed(stats.speed().walk());
+        }
+        entity.setStamina(stats.stamina());
+        entity.setSupport(stats.support());
+        entity.setFood(stats.food());
+        entity.setPal(pal);
+        return entity;
+    }
+
+    private static int orZero(Integer value) {
+        return value == null ? 0 : value;
+    }
+}
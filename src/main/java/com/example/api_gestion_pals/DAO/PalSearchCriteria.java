@@ -0,0 +1,50 @@
+package com.example.api_gestion_pals.DAO;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Critères de GET /pals/search ; un critère {@code null} (ou vide) ne filtre pas.
+ *
+ * @param types            types recherchés (en minuscules, comme dans pals.json)
+ * @param allTypes         {@code true} : le pal doit avoir tous les types, sinon au moins un
+ * @param suitability      type de travail (kindling, mining...)
+ * @param minSuitabilityLevel niveau minimal pour {@code suitability} (1 par défaut)
+ * @param stats            bornes par stat, nommées comme les propriétés de PalStatEntity (hp, meleeAttack...)
+ */
+public record PalSearchCriteria(
+        List<String> types,
+        boolean allTypes,
+        String suitability,
+        Integer minSuitabilityLevel,
+        Range rarity,
+        Range price,
+        Map<String, Range> stats
+) {
+
+    public static final List<String> STATS = List.of("hp", "meleeAttack", "rangedAttack", "defense",
+            "rideSpeed", "runSpeed", "walkSpeed", "stamina", "support", "food");
+
+    /**
+     * Intervalle fermé, chaque borne optionnelle.
+     */
+    public record Range(Integer min, Integer max) {
+
+        /**
+         * Lit {@code min..max}, {@code min..} ou {@code ..max}.
+         */
+        public static Range parse(String value) {
+            int separator = value.indexOf("..");
+            if (separator < 0) {
+                throw new IllegalArgumentException("Intervalle attendu (min..max) : " + value);
+            }
+            String min = value.substring(0, separator).trim();
+            String max = value.substring(separator + 2).trim();
+            try {
+                return new Range(min.isEmpty() ? null : Integer.valueOf(min), max.isEmpty() ? null : Integer.valueOf(max));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Intervalle invalide : " + value);
+            }
+        }
+    }
+}
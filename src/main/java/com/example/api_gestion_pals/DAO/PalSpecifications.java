@@ -0,0 +1,86 @@
+package com.example.api_gestion_pals.DAO;
+
+import com.example.api_gestion_pals.model.PalEntity;
+import com.example.api_gestion_pals.model.PalStatEntity;
+import com.example.api_gestion_pals.model.PalSuitabilityEntity;
+import com.example.api_gestion_pals.model.PalTypeEntity;
+import jakarta.persistence.criteria.*;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Traduit {@link PalSearchCriteria} en une seule requête : les critères sur les enfants sont des sous-requêtes
+ * EXISTS corrélées sur pal_id (pas de jointure, donc pas de doublons ni de DISTINCT, et un comptage identique),
+ * appuyées sur idx_pal_types_type_pal, idx_pal_suitabilities_type_pal_level et l'index unique de pal_stats.pal_id.
+ */
+public final class PalSpecifications {
+
+    private PalSpecifications() {
+    }
+
+    public static Specification<PalEntity> matching(PalSearchCriteria criteria) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            List<String> types = criteria.types() == null ? List.of() : criteria.types();
+            if (!types.isEmpty()) {
+                if (criteria.allTypes()) {
+                    types.forEach(type -> predicates.add(cb.exists(typeSubquery(root, query, cb, List.of(type)))));
+                } else {
+                    predicates.add(cb.exists(typeSubquery(root, query, cb, types)));
+                }
+            }
+
+            if (criteria.suitability() != null) {
+                Subquery<Integer> suitability = query.subquery(Integer.class);
+                Root<PalSuitabilityEntity> s = suitability.from(PalSuitabilityEntity.class);
+                int minLevel = criteria.minSuitabilityLevel() == null ? 1 : criteria.minSuitabilityLevel();
+                suitability.select(cb.literal(1)).where(
+                        cb.equal(s.get("type"), criteria.suitability()),
+                        cb.greaterThanOrEqualTo(s.get("level"), minLevel),
+                        cb.equal(s.get("pal"), root));
+                predicates.add(cb.exists(suitability));
+            }
+
+            addRange(predicates, cb, root.get("rarity"), criteria.rarity());
+            addRange(predicates, cb, root.get("price"), criteria.price());
+
+            Map<String, PalSearchCriteria.Range> stats = criteria.stats() == null ? Map.of() : criteria.stats();
+            if (!stats.isEmpty()) {
+                Subquery<Integer> statQuery = query.subquery(Integer.class);
+                Root<PalStatEntity> st = statQuery.from(PalStatEntity.class);
+                List<Predicate> statPredicates = new ArrayList<>();
+                statPredicates.add(cb.equal(st.get("pal"), root));
+                stats.forEach((stat, range) -> addRange(statPredicates, cb, st.get(stat), range));
+                statQuery.select(cb.literal(1)).where(statPredicates.toArray(Predicate[]::new));
+                predicates.add(cb.exists(statQuery));
+            }
+
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    private static Subquery<Integer> typeSubquery(Root<PalEntity> root, CriteriaQuery<?> query, CriteriaBuilder cb,
+                                                  List<String> types) {
+        Subquery<Integer> subquery = query.subquery(Integer.class);
+        Root<PalTypeEntity> t = subquery.from(PalTypeEntity.class);
+        Predicate type = types.size() == 1 ? cb.equal(t.get("type"), types.get(0)) : t.get("type").in(types);
+        return subquery.select(cb.literal(1)).where(type, cb.equal(t.get("pal"), root));
+    }
+
+    private static void addRange(List<Predicate> predicates, CriteriaBuilder cb, Path<Integer> value,
+                                 PalSearchCriteria.Range range) {
+        if (range == null) {
+            return;
+        }
+        if (range.min() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(value, range.min()));
+        }
+        if (range.max() != null) {
+            predicates.add(cb.lessThanOrEqualTo(value, range.max()));
+        }
+    }
+}
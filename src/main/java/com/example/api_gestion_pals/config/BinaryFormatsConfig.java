@@ -0,0 +1,50 @@
+package com.example.api_gestion_pals.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Formats binaires négociés par l'en-tête Accept (et Content-Type pour les corps de requête) :
+ * CBOR ({@code application/cbor}), Smile ({@code application/x-jackson-smile}) et MessagePack
+ * ({@code application/vnd.msgpack}).
+ * <p>
+ * Chaque ObjectMapper part du {@link Jackson2ObjectMapperBuilder} de Spring Boot : propriétés spring.jackson.*,
+ * modules et mixins sont ceux de l'ObjectMapper JSON, seul le format change. Les convertisseurs sont ajoutés
+ * après celui de JSON, qui reste le format choisi sans Accept ou avec {@code Accept: *}{@code /*} ; ceux que
+ * Spring MVC enregistre d'office pour CBOR et Smile, sans cette configuration, sont remplacés.
+ */
+@Configuration(proxyBeanMethods = false)
+public class BinaryFormatsConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> builders;
+
+    public BinaryFormatsConfig(ObjectProvider<Jackson2ObjectMapperBuilder> builders) {
+        this.builders = builders;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+                || converter instanceof MappingJackson2SmileHttpMessageConverter);
+        converters.add(new MappingJackson2CborHttpMessageConverter(mapper(new CBORFactory())));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(mapper(new SmileFactory())));
+        converters.add(new MessagePackHttpMessageConverter(mapper(new MessagePackFactory())));
+    }
+
+    // Le builder de Spring Boot est un prototype : un nouveau par format
+    private ObjectMapper mapper(JsonFactory factory) {
+        return builders.getIfAvailable(Jackson2ObjectMapperBuilder::new).factory(factory).build();
+    }
+}
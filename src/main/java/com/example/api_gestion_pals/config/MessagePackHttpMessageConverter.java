@@ -0,0 +1,23 @@
+package com.example.api_gestion_pals.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.util.Assert;
+
+/**
+ * Réponses et corps de requête MessagePack, sur le modèle de MappingJackson2CborHttpMessageConverter.
+ * Le type {@code application/vnd.msgpack} est celui enregistré à l'IANA ; {@code application/msgpack}
+ * et {@code application/x-msgpack} sont les noms encore répandus chez les clients.
+ */
+public class MessagePackHttpMessageConverter extends AbstractJackson2HttpMessageConverter {
+
+    public static final MediaType APPLICATION_MSGPACK = MediaType.parseMediaType("application/vnd.msgpack");
+
+    public MessagePackHttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper, APPLICATION_MSGPACK, MediaType.parseMediaType("application/msgpack"),
+                MediaType.parseMediaType("application/x-msgpack"));
+        Assert.isInstanceOf(MessagePackFactory.class, objectMapper.getFactory(), "MessagePackFactory required");
+    }
+}
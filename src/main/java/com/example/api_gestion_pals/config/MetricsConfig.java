@@ -0,0 +1,71 @@
+package com.example.api_gestion_pals.config;
+
+import com.example.api_gestion_pals.service.PalCatalogHolder;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Métriques propres à l'application ; le reste (routes HTTP, pool JDBC, statistiques Hibernate,
+ * appels de PalDAO, endpoint /actuator/prometheus) est fourni par l'auto-configuration d'Actuator.
+ */
+@Configuration(proxyBeanMethods = false)
+public class MetricsConfig {
+
+    @Bean
+    public StatementCounter statementCounter() {
+        return new StatementCounter();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer statementCounterCustomizer(StatementCounter statementCounter) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, statementCounter);
+    }
+
+    @Bean
+    public StatementsPerRequestFilter statementsPerRequestFilter(StatementCounter statementCounter,
+                                                                 MeterRegistry meterRegistry) {
+        return new StatementsPerRequestFilter(statementCounter, meterRegistry);
+    }
+
+    // Statistiques de cache du catalogue en mémoire (lectures par id et par nom)
+    @Bean
+    public MeterBinder palCatalogMetrics(PalCatalogHolder palCatalogHolder) {
+        return registry -> {
+            FunctionCounter.builder("pals.catalog.lookups", palCatalogHolder, PalCatalogHolder::hitCount)
+                    .description("Recherches par id ou par nom servies par le catalogue")
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("pals.catalog.lookups", palCatalogHolder, PalCatalogHolder::missCount)
+                    .description("Recherches par id ou par nom servies par le catalogue")
+                    .tag("result", "miss")
+                    .register(registry);
+            FunctionCounter.builder("pals.catalog.replacements", palCatalogHolder, PalCatalogHolder::replacementCount)
+                    .description("Pals remplacés ou retirés du catalogue par une écriture ou un rechargement "
+                            + "(le catalogue contient tout le jeu de données, rien n'est évincé faute de place)")
+                    .register(registry);
+            Gauge.builder("pals.catalog.size", palCatalogHolder, holder -> holder.current().size())
+                    .description("Nombre de pals dans le catalogue")
+                    .register(registry);
+        };
+    }
+
+    // Seulement avec spring.threads.virtual.enabled=true (profil virtual-threads)
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+            MeterRegistry meterRegistry,
+            @Value("${pals.virtual-threads.pinning-threshold:20ms}") Duration threshold) {
+        return new VirtualThreadPinningMonitor(meterRegistry, threshold);
+    }
+}
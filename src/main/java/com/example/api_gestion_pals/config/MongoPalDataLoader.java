@@ -0,0 +1,76 @@
+package com.example.api_gestion_pals.config;
+
+import com.example.api_gestion_pals.DAO.PalDocument;
+import com.example.api_gestion_pals.service.PalMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.Resource;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Import de pals.json dans la collection pals (profil {@code mongo}), si elle est vide :
+ * même pipeline que {@link PalDataLoader}, les documents partant par insertMany de {@code batchSize}.
+ */
+@Component
+@Profile("mongo")
+public class MongoPalDataLoader implements CommandLineRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MongoPalDataLoader.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final Resource source;
+    private final int batchSize;
+    private final PalImportPipeline pipeline;
+
+    public MongoPalDataLoader(MongoTemplate mongoTemplate, ObjectMapper objectMapper,
+                              @Value("${pals.import.location:classpath:pals.json}") Resource source,
+                              @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize,
+                              @Value("${pals.import.workers:4}") int workers,
+                              @Value("${pals.import.queue-capacity:256}") int queueCapacity) {
+        this.mongoTemplate = mongoTemplate;
+        this.source = source;
+        this.batchSize = batchSize;
+        this.pipeline = new PalImportPipeline(objectMapper, PalMapper::toEntity, workers, queueCapacity);
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        long count = mongoTemplate.count(new Query(), PalDocument.class);
+        LOGGER.info("Nombre de pals dans la collection : {}", count);
+        if (count > 0) {
+            LOGGER.info("La collection contient déjà des données, import ignoré");
+            return;
+        }
+
+        try (InputStream is = source.getInputStream()) {
+            long start = System.nanoTime();
+            List<PalDocument> pending = new ArrayList<>(batchSize);
+            int imported = pipeline.run(is, entity -> {
+                pending.add(PalDocument.of(entity, 0));
+                if (pending.size() == batchSize) {
+                    mongoTemplate.insert(pending, PalDocument.class);
+                    pending.clear();
+                }
+            });
+            if (!pending.isEmpty()) {
+                mongoTemplate.insert(pending, PalDocument.class);
+            }
+            long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+            LOGGER.info("Import de {} pals terminé en {} ms ({} pals/s)",
+                    imported, elapsedMillis, imported * 1000L / elapsedMillis);
+        } catch (IOException e) {
+            LOGGER.error("Impossible de charger {}", source, e);
+        }
+    }
+}
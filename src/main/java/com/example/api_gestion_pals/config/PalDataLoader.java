@@ -1,46 +1,70 @@
 package com.example.api_gestion_pals.config;
 
 import com.example.api_gestion_pals.DAO.PalDAO;
-import com.example.api_gestion_pals.model.*;
-import com.example.api_gestion_pals.service.entity.Attack;
-import com.example.api_gestion_pals.service.entity.Pal;
-import com.example.api_gestion_pals.service.entity.Skill;
-import com.example.api_gestion_pals.service.entity.Stat;
-import com.example.api_gestion_pals.service.entity.Suitability;
-import com.example.api_gestion_pals.service.entity.Speed;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.example.api_gestion_pals.model.PalEntity;
+import com.example.api_gestion_pals.service.PalMapper;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
-
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Import de pals.json dans une base vide. Avec {@code pals.snapshot.location}, une image binaire du catalogue
+ * importé ({@link PalSnapshot}) est écrite à côté ; au démarrage suivant, si la somme de contrôle de pals.json
+ * n'a pas changé, les pals sont rechargés depuis l'image sans analyser le JSON.
+ * La durée de l'import est publiée dans le timer {@code pals.import} (tag source : json ou snapshot).
+ * Profil mongo : import fait par MongoPalDataLoader.
+ */
 @Component
+@Profile("!mongo")
 @SuppressWarnings("unused")
 public class PalDataLoader implements CommandLineRunner {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(PalDataLoader.class);
 
     private final PalDAO palDAO;
-    private final ObjectMapper objectMapper;
     private final EntityManager entityManager;
-
-    public PalDataLoader(PalDAO palDAO, ObjectMapper objectMapper, EntityManager entityManager) {
+    private final Resource source;
+    private final int batchSize;
+    private final PalImportPipeline pipeline;
+    private final Path snapshot;
+    private final MeterRegistry meterRegistry;
+
+    public PalDataLoader(PalDAO palDAO, ObjectMapper objectMapper, EntityManager entityManager,
+                         MeterRegistry meterRegistry,
+                         @Value("${pals.import.location:classpath:pals.json}") Resource source,
+                         @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize,
+                         @Value("${pals.import.workers:4}") int workers,
+                         @Value("${pals.import.queue-capacity:256}") int queueCapacity,
+                         @Value("${pals.snapshot.location:}") String snapshot) {
         this.palDAO = palDAO;
-        this.objectMapper = objectMapper;
         this.entityManager = entityManager;
+        this.meterRegistry = meterRegistry;
+        this.source = source;
+        this.batchSize = batchSize;
+        this.pipeline = new PalImportPipeline(objectMapper, PalMapper::toEntity, workers, queueCapacity);
+        this.snapshot = snapshot.isBlank() ? null : Path.of(snapshot);
     }
 
     @Override
-    @Transactional
+    @Transactional(rollbackFor = Exception.class)
     public void run(String... args) throws Exception {
         long count = palDAO.count();
         LOGGER.info("Nombre de pals dans la base : {}", count);
@@ -49,153 +73,112 @@ public class PalDataLoader implements CommandLineRunner {
             return;
         }
 
-        try (InputStream is = new ClassPathResource("pals.json").getInputStream()) {
-            List<Pal> pals = objectMapper.readValue(is, new TypeReference<>() {
-            });
-            int batchSize = 50;
-            for (int i = 0; i < pals.size(); i++) {
-                Pal pal = pals.get(i);
-                PalEntity entity = toEntity(pal);
-                
-                // Vérifier si l'entité existe déjà dans la session ou la base
-                PalEntity existingEntity = entityManager.find(PalEntity.class, entity.getId());
-                if (existingEntity == null) {
-                    // Sauvegarder d'abord le PalEntity sans les relations en cascade
-                    PalStatEntity stats = entity.getStats();
-                    List<PalTypeEntity> types = new ArrayList<>(entity.getTypes());
-                    List<PalSkillEntity> skills = new ArrayList<>(entity.getSkills());
-                    List<PalSuitabilityEntity> suitabilities = new ArrayList<>(entity.getSuitabilities());
-                    
-                    // Retirer temporairement toutes les relations
-                    entity.setStats(null);
-                    entity.getTypes().clear();
-                    entity.getSkills().clear();
-                    entity.getSuitabilities().clear();
-                    
-                    // Persister le PalEntity seul
-                    entityManager.persist(entity);
-                    entityManager.flush();
-                    
-                    // Recharger l'entité gérée depuis la base
-                    PalEntity managedEntity = entityManager.find(PalEntity.class, entity.getId());
-                    
-                    // Sauvegarder manuellement les relations
-                    for (PalTypeEntity type : types) {
-                        type.setPal(managedEntity);
-                        entityManager.persist(type);
-                        managedEntity.getTypes().add(type);
-                    }
-                    
-                    for (PalSkillEntity skill : skills) {
-                        skill.setPal(managedEntity);
-                        entityManager.persist(skill);
-                        managedEntity.getSkills().add(skill);
-                    }
-                    
-                    for (PalSuitabilityEntity suitability : suitabilities) {
-                        suitability.setPal(managedEntity);
-                        entityManager.persist(suitability);
-                        managedEntity.getSuitabilities().add(suitability);
-                    }
-                    
-                    // Sauvegarder le PalStatEntity
-                    if (stats != null) {
-                        stats.setPal(managedEntity);
-                        entityManager.persist(stats);
-                        managedEntity.setStats(stats);
-                    }
-                }
-                
-                // Clear périodiquement pour éviter les problèmes de session
-                if ((i + 1) % batchSize == 0) {
-                    entityManager.clear();
-                }
-            }
-            entityManager.clear();
-            long finalCount = palDAO.count();
-            LOGGER.info("Import de {} pals terminé. Nombre total de pals dans la base : {}", pals.size(), finalCount);
+        long start = System.nanoTime();
+        String checksum;
+        try {
+            checksum = snapshot == null ? null : PalSnapshot.checksum(source);
+        } catch (IOException e) {
+            LOGGER.error("Impossible de charger {}", source, e);
+            return;
+        }
+        if (checksum != null && checksum.equals(PalSnapshot.sourceChecksum(snapshot)) && restoreSnapshot()) {
+            imported("snapshot", start);
+            return;
+        }
+
+        try (InputStream is = source.getInputStream();
+             PalSnapshot.Writer image = checksum == null ? null : PalSnapshot.writer(snapshot, checksum)) {
+            // Lecture et conversion en parallèle de l'écriture ; base vide : pas de vérification
+            // d'existence, les inserts partent par lots JDBC (un flush par lot)
+            BatchWriter writer = new BatchWriter(image);
+            pipeline.run(is, writer);
+            writer.finish();
+            writer.commitImage();
         } catch (IOException e) {
-            LOGGER.error("Impossible de charger pals.json", e);
+            // Des lots sont déjà en base : la transaction est annulée pour que l'import reste tout ou rien
+            // (l'image partielle est supprimée à la fermeture du Writer, sans commit)
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            LOGGER.error("Impossible de charger {}, import annulé", source, e);
+            return;
         }
+        imported("json", start);
     }
 
-    private PalEntity toEntity(Pal pal) {
-        PalEntity entity = new PalEntity();
-        entity.setId(pal.id());
-        entity.setPalKey(pal.key());
-        entity.setName(pal.name());
-        entity.setWiki(pal.wiki());
-        entity.setRarity(pal.rarity());
-        entity.setPrice(pal.price());
-        entity.setSize(pal.size());
-
-        // types
-        if (pal.types() != null) {
-            for (String t : pal.types()) {
-                PalTypeEntity typeEntity = new PalTypeEntity();
-                typeEntity.setType(t);
-                typeEntity.setPal(entity);
-                entity.getTypes().add(typeEntity);
-            }
+    // L'image est relue en entier (et son CRC vérifié) avant le premier insert : une image corrompue
+    // ne laisse rien en base et l'import repart du JSON
+    private boolean restoreSnapshot() {
+        List<PalEntity> pals = new ArrayList<>();
+        try {
+            PalSnapshot.read(snapshot, pals::add);
+        } catch (IOException e) {
+            LOGGER.warn("Image du catalogue inutilisable, import depuis {}", source, e);
+            return false;
         }
+        BatchWriter writer = new BatchWriter(null);
+        pals.forEach(writer);
+        writer.finish();
+        return true;
+    }
 
-        // suitabilities
-        if (pal.suitability() != null) {
-            for (Suitability s : pal.suitability()) {
-                PalSuitabilityEntity se = new PalSuitabilityEntity();
-                se.setType(s.type());
-                se.setLevel(s.level());
-                se.setPal(entity);
-                entity.getSuitabilities().add(se);
-            }
+    private void imported(String from, long start) {
+        long elapsedNanos = System.nanoTime() - start;
+        Timer.builder("pals.import")
+                .description("Durée de l'import des pals au démarrage")
+                .tag("source", from)
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        long elapsedMillis = Math.max(1, elapsedNanos / 1_000_000);
+        long finalCount = palDAO.count();
+        LOGGER.info("Import ({}) terminé en {} ms ({} pals/s). Nombre total de pals dans la base : {}",
+                from, elapsedMillis, finalCount * 1000L / elapsedMillis, finalCount);
+    }
+
+    private class BatchWriter implements Consumer<PalEntity> {
+
+        private PalSnapshot.Writer image;
+        private int pending;
+
+        BatchWriter(PalSnapshot.Writer image) {
+            this.image = image;
         }
 
-        // skills
-        if (pal.skills() != null) {
-            for (Skill s : pal.skills()) {
-                PalSkillEntity skillEntity = new PalSkillEntity();
-                skillEntity.setLevel(s.level());
-                skillEntity.setName(s.name());
-                skillEntity.setType(s.type());
-                skillEntity.setCooldown(s.cooldown());
-                skillEntity.setPower(s.power());
-                skillEntity.setDescription(s.description());
-                skillEntity.setPal(entity);
-                entity.getSkills().add(skillEntity);
+        @Override
+        public void accept(PalEntity entity) {
+            // Un échec d'écriture de l'image n'interrompt pas l'import : l'image est seulement abandonnée
+            if (image != null) {
+                try {
+                    image.write(entity);
+                } catch (IOException e) {
+                    LOGGER.warn("Écriture de l'image du catalogue abandonnée : {}", snapshot, e);
+                    image = null;
+                }
+            }
+            entityManager.persist(entity);
+            if (entity.getStats() != null) {
+                entityManager.persist(entity.getStats());
+            }
+            if (++pending == batchSize) {
+                finish();
             }
         }
 
-        // stats
-        if (pal.stats() != null) {
-            PalStatEntity statEntity = getPalStatEntity(pal, entity);
-            entity.setStats(statEntity);
+        void finish() {
+            entityManager.flush();
+            entityManager.clear();
+            pending = 0;
         }
 
-        return entity;
-    }
-
-    private static PalStatEntity getPalStatEntity(Pal pal, PalEntity entity) {
-        Stat st = pal.stats();
-        PalStatEntity statEntity = new PalStatEntity();
-        statEntity.setHp(st.hp());
-        Attack attack = st.attack();
-        if (attack != null) {
-            statEntity.setMeleeAttack(attack.melee());
-            statEntity.setRangedAttack(attack.ranged());
-        }
-        statEntity.setDefense(st.defense());
-        Speed speed = st.speed();
-        if (speed != null) {
-            statEntity.setRideSpeed(speed.ride());
-            statEntity.setRunSpeed(speed.run());
-            statEntity.setWalkSpeed(speed.walk());
+        // Un échec ici n'annule pas l'import : le prochain démarrage repartira du JSON
+        void commitImage() {
+            if (image == null) {
+                return;
+            }
+            try {
+                image.commit();
+                LOGGER.info("Image du catalogue écrite : {}", snapshot);
+            } catch (IOException e) {
+                LOGGER.warn("Écriture de l'image du catalogue abandonnée : {}", snapshot, e);
+            }
         }
-        statEntity.setStamina(st.stamina());
-        statEntity.setSupport(st.support());
-        statEntity.setFood(st.food());
-        statEntity.setPal(entity);
-        return statEntity;
     }
 }
-
-
@@ -0,0 +1,108 @@
+package com.example.api_gestion_pals.config;
+
+import com.example.api_gestion_pals.model.PalEntity;
+import com.example.api_gestion_pals.service.entity.Pal;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Import en flux d'un tableau JSON de {@link Pal} :
+ * <ul>
+ *     <li>un thread lecteur analyse le fichier avec un {@link JsonParser}, un enregistrement à la fois ;</li>
+ *     <li>un pool borné de workers convertit chaque enregistrement en {@link PalEntity} ;</li>
+ *     <li>le thread appelant (celui qui porte la transaction) reçoit les entités dans l'ordre du fichier.</li>
+ * </ul>
+ * La file des conversions en cours est bornée : le lecteur se bloque quand l'écriture prend du retard,
+ * la mémoire utilisée ne dépend donc pas de la taille du fichier.
+ */
+public class PalImportPipeline {
+
+    private static final Future<PalEntity> END_OF_INPUT = CompletableFuture.completedFuture(null);
+
+    private final ObjectReader palReader;
+    private final Function<Pal, PalEntity> converter;
+    private final int workers;
+    private final int queueCapacity;
+
+    public PalImportPipeline(ObjectMapper objectMapper, Function<Pal, PalEntity> converter,
+                             int workers, int queueCapacity) {
+        this.palReader = objectMapper.readerFor(Pal.class);
+        this.converter = converter;
+        this.workers = workers;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Lit tout le flux et passe chaque entité à {@code writer}, dans le thread appelant.
+     *
+     * @return le nombre d'entités écrites
+     */
+    public int run(InputStream in, Consumer<PalEntity> writer) throws IOException, InterruptedException {
+        BlockingQueue<Future<PalEntity>> pending = new ArrayBlockingQueue<>(queueCapacity);
+        ExecutorService pool = Executors.newFixedThreadPool(workers, namedThreads("pal-import-worker-"));
+        Thread reader = Thread.ofPlatform()
+                .name("pal-import-reader")
+                .daemon()
+                .start(() -> read(in, pending, pool));
+        try {
+            int written = 0;
+            while (true) {
+                Future<PalEntity> next = pending.take();
+                if (next == END_OF_INPUT) {
+                    return written;
+                }
+                writer.accept(next.get());
+                written++;
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IllegalStateException("Échec de l'import des pals", e.getCause());
+        } finally {
+            reader.interrupt();
+            pool.shutdownNow();
+        }
+    }
+
+    private void read(InputStream in, BlockingQueue<Future<PalEntity>> pending, ExecutorService pool) {
+        try {
+            try (JsonParser parser = palReader.createParser(in)) {
+                if (parser.nextToken() != JsonToken.START_ARRAY) {
+                    throw new IOException("Tableau JSON de pals attendu");
+                }
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    Pal pal = palReader.readValue(parser);
+                    pending.put(pool.submit(() -> converter.apply(pal)));
+                }
+            }
+            pending.put(END_OF_INPUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // Remonté au thread d'écriture à la place de l'enregistrement suivant
+            if (!pending.offer(CompletableFuture.failedFuture(e))) {
+                pending.clear();
+                pending.offer(CompletableFuture.failedFuture(e));
+            }
+        }
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
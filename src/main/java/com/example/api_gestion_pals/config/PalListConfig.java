@@ -0,0 +1,42 @@
+package com.example.api_gestion_pals.config;
+
+import com.example.api_gestion_pals.controller.PalListHttpMessageConverter;
+import com.example.api_gestion_pals.service.PalChangedEvent;
+import com.example.api_gestion_pals.service.PalsChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Place {@link PalListHttpMessageConverter} en tête : pour une liste du catalogue demandée en JSON, il passe
+ * avant le convertisseur de Jackson ; les autres corps et formats ne le concernent pas. Après chaque écriture
+ * commitée, les fragments des pals touchés lui sont retirés.
+ */
+@Configuration(proxyBeanMethods = false)
+public class PalListConfig implements WebMvcConfigurer {
+
+    private final PalListHttpMessageConverter palListConverter;
+
+    public PalListConfig(ObjectMapper objectMapper) {
+        this.palListConverter = new PalListHttpMessageConverter(objectMapper);
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(0, palListConverter);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPalChanged(PalChangedEvent event) {
+        palListConverter.forget(List.of(event.palId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPalsChanged(PalsChangedEvent event) {
+        palListConverter.forget(event.palIds());
+    }
+}
@@ -0,0 +1,355 @@
+package com.example.api_gestion_pals.config;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+import com.example.api_gestion_pals.service.PalService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache des corps de réponse des listes servies par le catalogue (GET /pals, /pals/by-type, /pals/sorted/...).
+ * <p>
+ * Entre deux écritures, ces endpoints renvoient les mêmes octets : la première réponse 200 d'une URL (chemin,
+ * paramètres et Accept) est conservée avec son Content-Type et son ETag, puis resservie telle quelle, sans
+ * contrôleur ni Jackson. Les variantes gzip et brotli sont compressées à la première demande puis gardées ;
+ * Accept-Encoding choisit la variante, servie sous son propre ETag, qui vaut aussi pour If-None-Match quand la
+ * réponse n'est pas en cache. Chaque entrée porte l'étiquette du catalogue qui l'a produite : après
+ * une écriture commitée, l'étiquette change et le cache est vidé à la lecture suivante.
+ */
+public class PalResponseCacheFilter extends OncePerRequestFilter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PalResponseCacheFilter.class);
+
+    private static final String GZIP = "gzip";
+    private static final String BROTLI = "br";
+    private static final String IDENTITY = "identity";
+    private static final boolean BROTLI_AVAILABLE = brotliAvailable();
+
+    private final PalService palService;
+    private final Map<String, Entry> entries;
+    private final Counter hits;
+    private final Counter misses;
+
+    public PalResponseCacheFilter(PalService palService, MeterRegistry meterRegistry, int maxEntries) {
+        this.palService = palService;
+        // LRU borné : les paramètres (fields, limit, offset...) multiplient les URL possibles
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.hits = Counter.builder("pals.response.cache").description("Réponses de liste servies par le cache")
+                .tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("pals.response.cache").description("Réponses de liste servies par le cache")
+                .tag("result", "miss").register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            chain.doFilter(request, response);
+            return;
+        }
+        // Étiquette lue avant de produire la réponse : si une écriture a lieu entre-temps, l'entrée est
+        // rangée sous l'ancienne étiquette et ne sera jamais resservie
+        String tag = palService.getCatalogTag();
+        String key = key(request);
+        String encoding = encoding(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        Entry entry = lookup(key, tag);
+        if (entry != null) {
+            hits.increment();
+            // Le contrôleur n'a pas vu cette requête : If-None-Match est évalué ici, contre l'ETag de la variante
+            if (new ServletWebRequest(request, response).checkNotModified(etag(entry.etag, encoding))) {
+                response.setHeader(HttpHeaders.VARY, entry.vary);
+                return;
+            }
+            write(entry, encoding, response);
+            return;
+        }
+        misses.increment();
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        chain.doFilter(new VariantRequest(request, encoding), wrapper);
+        String etag = wrapper.getHeader(HttpHeaders.ETAG);
+        if (wrapper.getStatus() == HttpServletResponse.SC_NOT_MODIFIED && etag != null) {
+            // 304 du contrôleur, validé contre l'ETag de la variante : c'est elle que le client garde en cache
+            wrapper.setHeader(HttpHeaders.ETAG, etag(etag, encoding));
+            wrapper.setHeader(HttpHeaders.VARY, vary(wrapper.getHeaders(HttpHeaders.VARY)));
+            wrapper.copyBodyToResponse();
+            return;
+        }
+        if (wrapper.getStatus() != HttpServletResponse.SC_OK || request.isAsyncStarted()
+                || wrapper.getContentType() == null || etag == null) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+        entry = new Entry(tag, wrapper.getContentType(), etag, vary(wrapper.getHeaders(HttpHeaders.VARY)),
+                wrapper.getContentAsByteArray());
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+        // Réponse 200 décidée par le contrôleur (If-None-Match déjà évalué) : il ne reste qu'à choisir la variante
+        write(entry, encoding, response);
+    }
+
+    // Chemin, paramètres triés (MockMvc et les conteneurs ne les exposent pas tous par la query string) et Accept
+    private static String key(HttpServletRequest request) {
+        StringBuilder key = new StringBuilder(request.getRequestURI()).append('?');
+        new TreeMap<>(request.getParameterMap()).forEach((name, values) -> {
+            for (String value : values) {
+                key.append(URLEncoder.encode(name, StandardCharsets.UTF_8)).append('=')
+                        .append(URLEncoder.encode(value, StandardCharsets.UTF_8)).append('&');
+            }
+        });
+        return key.append(' ').append(request.getHeader(HttpHeaders.ACCEPT)).toString();
+    }
+
+    private Entry lookup(String key, String tag) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && !entry.tag.equals(tag)) {
+                // Le catalogue a changé : toutes les entrées sont périmées
+                entries.clear();
+                return null;
+            }
+            return entry;
+        }
+    }
+
+    private static void write(Entry entry, String encoding, HttpServletResponse response) throws IOException {
+        byte[] body = entry.body(encoding);
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(entry.contentType);
+        response.setHeader(HttpHeaders.ETAG, etag(entry.etag, encoding));
+        response.setHeader(HttpHeaders.VARY, entry.vary);
+        if (!encoding.equals(IDENTITY)) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, encoding);
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    /**
+     * ETag d'une variante : un validateur fort désigne des octets précis, chaque codage a donc le sien
+     * ({@code "catalog-x"}, {@code "catalog-x-gzip"}, {@code "catalog-x-br"}).
+     */
+    static String etag(String etag, String encoding) {
+        if (encoding.equals(IDENTITY) || !etag.endsWith("\"")) {
+            return etag;
+        }
+        return etag.substring(0, etag.length() - 1) + '-' + encoding + '"';
+    }
+
+    /**
+     * If-None-Match tel que le contrôleur doit le voir : il ne connaît que l'ETag identity, l'ETag de la variante
+     * servie y est donc ramené (suffixe du codage retiré) ; ceux des autres variantes ne désignent pas les octets
+     * envoyés et sont écartés. {@code null} s'il ne reste rien à comparer.
+     */
+    static String ifNoneMatch(String header, String encoding) {
+        if (header == null || encoding.equals(IDENTITY)) {
+            return header;
+        }
+        String suffix = '-' + encoding + '"';
+        List<String> etags = new ArrayList<>();
+        for (String value : header.split(",")) {
+            String etag = value.trim();
+            if (etag.equals("*")) {
+                etags.add(etag);
+            } else if (etag.endsWith(suffix)) {
+                etags.add(etag.substring(0, etag.length() - suffix.length()) + '"');
+            }
+        }
+        return etags.isEmpty() ? null : String.join(", ", etags);
+    }
+
+    // Vary du contrôleur (Accept...) complété par Accept-Encoding, sans doublon
+    static String vary(Collection<String> headers) {
+        Set<String> names = new LinkedHashSet<>();
+        for (String header : headers) {
+            for (String name : header.split(",")) {
+                if (!name.isBlank()) {
+                    names.add(name.trim());
+                }
+            }
+        }
+        if (names.stream().noneMatch(HttpHeaders.ACCEPT_ENCODING::equalsIgnoreCase)) {
+            names.add(HttpHeaders.ACCEPT_ENCODING);
+        }
+        return String.join(", ", names);
+    }
+
+    /**
+     * Codage retenu d'après Accept-Encoding : le plus haut q parmi br, gzip et identity, br puis gzip à égalité ;
+     * identity si rien d'autre n'est accepté.
+     */
+    static String encoding(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return IDENTITY;
+        }
+        // -1 : codage absent de l'en-tête, il prend alors la valeur de « * »
+        double brotli = -1;
+        double gzip = -1;
+        double wildcard = 0;
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.split(";");
+            String coding = params[0].trim().toLowerCase(Locale.ROOT);
+            double q = 1;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            switch (coding) {
+                case BROTLI -> brotli = q;
+                case GZIP -> gzip = q;
+                case "*" -> wildcard = q;
+                default -> {
+                }
+            }
+        }
+        brotli = brotli < 0 ? wildcard : brotli;
+        gzip = gzip < 0 ? wildcard : gzip;
+        if (BROTLI_AVAILABLE && brotli > 0 && brotli >= gzip) {
+            return BROTLI;
+        }
+        return gzip > 0 ? GZIP : IDENTITY;
+    }
+
+    private static boolean brotliAvailable() {
+        try {
+            Brotli4jLoader.ensureAvailability();
+            return true;
+        } catch (Throwable e) {
+            LOGGER.warn("Brotli indisponible sur cette plateforme, réponses en gzip seulement : {}", e.toString());
+            return false;
+        }
+    }
+
+    // Requête transmise au contrôleur lors d'un échec de cache, If-None-Match ramené à l'ETag identity
+    private static final class VariantRequest extends HttpServletRequestWrapper {
+
+        private final String ifNoneMatch;
+
+        private VariantRequest(HttpServletRequest request, String encoding) {
+            super(request);
+            Enumeration<String> values = request.getHeaders(HttpHeaders.IF_NONE_MATCH);
+            this.ifNoneMatch = values == null || !values.hasMoreElements() ? null
+                    : ifNoneMatch(String.join(", ", Collections.list(values)), encoding);
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return HttpHeaders.IF_NONE_MATCH.equalsIgnoreCase(name) ? ifNoneMatch : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            if (!HttpHeaders.IF_NONE_MATCH.equalsIgnoreCase(name)) {
+                return super.getHeaders(name);
+            }
+            return Collections.enumeration(ifNoneMatch == null ? List.of() : List.of(ifNoneMatch));
+        }
+    }
+
+    private static final class Entry {
+
+        private final String tag;
+        private final String contentType;
+        private final String etag;
+        private final String vary;
+        private final byte[] identity;
+        private volatile byte[] gzip;
+        private volatile byte[] brotli;
+
+        private Entry(String tag, String contentType, String etag, String vary, byte[] identity) {
+            this.tag = tag;
+            this.contentType = contentType;
+            this.etag = etag;
+            this.vary = vary;
+            this.identity = identity;
+        }
+
+        // Chaque variante n'est compressée qu'une fois par entrée
+        private byte[] body(String encoding) {
+            return switch (encoding) {
+                case GZIP -> {
+                    if (gzip == null) {
+                        synchronized (this) {
+                            if (gzip == null) {
+                                gzip = gzip(identity);
+                            }
+                        }
+                    }
+                    yield gzip;
+                }
+                case BROTLI -> {
+                    if (brotli == null) {
+                        synchronized (this) {
+                            if (brotli == null) {
+                                brotli = brotli(identity);
+                            }
+                        }
+                    }
+                    yield brotli;
+                }
+                default -> identity;
+            };
+        }
+
+        private static byte[] gzip(byte[] content) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                gzip.write(content);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return out.toByteArray();
+        }
+
+        // Qualité 9 plutôt que 11 : à peine moins compact, bien plus rapide à recalculer après chaque écriture
+        private static byte[] brotli(byte[] content) {
+            try {
+                return Encoder.compress(content, new Encoder.Parameters().setQuality(9));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
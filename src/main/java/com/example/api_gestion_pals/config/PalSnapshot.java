@@ -0,0 +1,287 @@
+package com.example.api_gestion_pals.config;
+
+import com.example.api_gestion_pals.model.*;
+import org.springframework.core.io.Resource;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Image binaire du catalogue importé, pour redémarrer sans relire pals.json.
+ * <p>
+ * Format : en-tête (magie, version du format, SHA-256 du JSON source), puis chaque pal champ par champ
+ * (pas de noms de champs, chaînes en UTF-8 préfixées de leur longueur, marqueur de présence pour les
+ * valeurs nullables), un marqueur de fin et le CRC32C de tout ce qui précède. Une image d'une autre
+ * source, d'un autre format ou tronquée est refusée.
+ */
+public final class PalSnapshot {
+
+    private static final int MAGIC = 0x50414C53; // « PALS »
+    private static final int FORMAT = 1;
+
+    private PalSnapshot() {
+    }
+
+    /**
+     * SHA-256 du contenu de {@code source}, en hexadécimal.
+     */
+    public static String checksum(Resource source) throws IOException {
+        MessageDigest digest = sha256();
+        try (InputStream in = new DigestInputStream(source.getInputStream(), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Somme de contrôle de la source enregistrée dans l'image, ou {@code null} si l'image est absente
+     * ou d'un autre format.
+     */
+    public static String sourceChecksum(Path path) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            return readHeader(in);
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Relit tous les pals de l'image et les passe à {@code consumer}, dans l'ordre d'écriture.
+     *
+     * @return le nombre de pals lus
+     * @throws IOException si l'image est illisible, tronquée ou corrompue
+     */
+    public static int read(Path path, Consumer<PalEntity> consumer) throws IOException {
+        CRC32C crc = new CRC32C();
+        try (CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16), crc);
+             DataInputStream in = new DataInputStream(checked)) {
+            if (readHeader(in) == null) {
+                throw new IOException("Image de catalogue d'un autre format : " + path);
+            }
+            int count = 0;
+            while (in.readBoolean()) {
+                consumer.accept(readPal(in));
+                count++;
+            }
+            long expected = crc.getValue();
+            if (in.readLong() != expected) {
+                throw new IOException("Image de catalogue corrompue : " + path);
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Écrit une image dans un fichier temporaire, qui ne remplace {@code path} qu'à {@link Writer#commit()}.
+     */
+    public static Writer writer(Path path, String sourceChecksum) throws IOException {
+        return new Writer(path, sourceChecksum);
+    }
+
+    public static final class Writer implements Closeable {
+
+        private final Path path;
+        private final Path temporary;
+        private final CRC32C crc = new CRC32C();
+        private final DataOutputStream out;
+        private boolean committed;
+
+        private Writer(Path path, String sourceChecksum) throws IOException {
+            this.path = path;
+            Path directory = path.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            this.temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+            this.out = new DataOutputStream(new CheckedOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16), crc));
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT);
+            out.write(HexFormat.of().parseHex(sourceChecksum));
+        }
+
+        public void write(PalEntity pal) throws IOException {
+            out.writeBoolean(true);
+            writePal(out, pal);
+        }
+
+        /**
+         * Termine l'image et la met en place (remplacement atomique quand le système de fichiers le permet).
+         */
+        public void commit() throws IOException {
+            out.writeBoolean(false);
+            out.writeLong(crc.getValue());
+            out.close();
+            try {
+                Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+            committed = true;
+        }
+
+        // Sans commit (échec de l'import), l'image partielle est abandonnée
+        @Override
+        public void close() throws IOException {
+            if (!committed) {
+                out.close();
+                Files.deleteIfExists(temporary);
+            }
+        }
+    }
+
+    private static String readHeader(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != FORMAT) {
+            return null;
+        }
+        byte[] checksum = new byte[32];
+        in.readFully(checksum);
+        return HexFormat.of().formatHex(checksum);
+    }
+
+    private static void writePal(DataOutputStream out, PalEntity pal) throws IOException {
+        out.writeInt(pal.getId());
+        writeString(out, pal.getPalKey());
+        writeString(out, pal.getName());
+        writeString(out, pal.getWiki());
+        writeInteger(out, pal.getRarity());
+        writeInteger(out, pal.getPrice());
+        writeString(out, pal.getSize());
+
+        out.writeInt(pal.getTypes().size());
+        for (PalTypeEntity type : pal.getTypes()) {
+            writeString(out, type.getType());
+        }
+        out.writeInt(pal.getSuitabilities().size());
+        for (PalSuitabilityEntity suitability : pal.getSuitabilities()) {
+            writeString(out, suitability.getType());
+            writeInteger(out, suitability.getLevel());
+        }
+        out.writeInt(pal.getSkills().size());
+        for (PalSkillEntity skill : pal.getSkills()) {
+            writeInteger(out, skill.getLevel());
+            writeString(out, skill.getName());
+            writeString(out, skill.getType());
+            writeInteger(out, skill.getCooldown());
+            writeInteger(out, skill.getPower());
+            writeString(out, skill.getDescription());
+        }
+
+        PalStatEntity stats = pal.getStats();
+        out.writeBoolean(stats != null);
+        if (stats != null) {
+            for (Integer value : Arrays.asList(stats.getHp(), stats.getMeleeAttack(), stats.getRangedAttack(),
+                    stats.getDefense(), stats.getRideSpeed(), stats.getRunSpeed(), stats.getWalkSpeed(),
+                    stats.getStamina(), stats.getSupport(), stats.getFood())) {
+                writeInteger(out, value);
+            }
+        }
+    }
+
+    private static PalEntity readPal(DataInputStream in) throws IOException {
+        PalEntity pal = new PalEntity();
+        pal.setId(in.readInt());
+        pal.setPalKey(readString(in));
+        pal.setName(readString(in));
+        pal.setWiki(readString(in));
+        pal.setRarity(readInteger(in));
+        pal.setPrice(readInteger(in));
+        pal.setSize(readString(in));
+
+        for (int i = in.readInt(); i > 0; i--) {
+            PalTypeEntity type = new PalTypeEntity();
+            type.setType(readString(in));
+            type.setPal(pal);
+            pal.getTypes().add(type);
+        }
+        for (int i = in.readInt(); i > 0; i--) {
+            PalSuitabilityEntity suitability = new PalSuitabilityEntity();
+            suitability.setType(readString(in));
+            suitability.setLevel(readInteger(in));
+            suitability.setPal(pal);
+            pal.getSuitabilities().add(suitability);
+        }
+        for (int i = in.readInt(); i > 0; i--) {
+            PalSkillEntity skill = new PalSkillEntity();
+            skill.setLevel(readInteger(in));
+            skill.setName(readString(in));
+            skill.setType(readString(in));
+            skill.setCooldown(readInteger(in));
+            skill.setPower(readInteger(in));
+            skill.setDescription(readString(in));
+            skill.setPal(pal);
+            pal.getSkills().add(skill);
+        }
+
+        if (in.readBoolean()) {
+            PalStatEntity stats = new PalStatEntity();
+            stats.setHp(readInteger(in));
+            stats.setMeleeAttack(readInteger(in));
+            stats.setRangedAttack(readInteger(in));
+            stats.setDefense(readInteger(in));
+            stats.setRideSpeed(readInteger(in));
+            stats.setRunSpeed(readInteger(in));
+            stats.setWalkSpeed(readInteger(in));
+            stats.setStamina(readInteger(in));
+            stats.setSupport(readInteger(in));
+            stats.setFood(readInteger(in));
+            stats.setPal(pal);
+            pal.setStats(stats);
+        }
+        return pal;
+    }
+
+    // Longueur -1 pour null ; writeUTF est limité à 64 Ko et à un UTF-8 modifié
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeInteger(DataOutputStream out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    private static Integer readInteger(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.api_gestion_pals.config;
+
+import com.example.api_gestion_pals.service.PalService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Cache des réponses de liste du catalogue ({@link PalResponseCacheFilter}), limité aux endpoints qui
+ * renvoient le catalogue entier ou une grande partie ; désactivable avec {@code pals.response-cache.enabled=false}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "pals.response-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class ResponseCacheConfig {
+
+    @Bean
+    public FilterRegistrationBean<PalResponseCacheFilter> palResponseCacheFilter(
+            PalService palService,
+            MeterRegistry meterRegistry,
+            @Value("${pals.response-cache.max-entries:256}") int maxEntries) {
+        FilterRegistrationBean<PalResponseCacheFilter> registration =
+                new FilterRegistrationBean<>(new PalResponseCacheFilter(palService, meterRegistry, maxEntries));
+        registration.addUrlPatterns("/pals", "/pals/by-type", "/pals/sorted/*");
+        return registration;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.api_gestion_pals.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Compte les requêtes SQL préparées par Hibernate dans le thread courant, entre {@link #start()} et {@link #stop()}.
+ * Les requêtes exécutées hors d'une mesure (import, threads asynchrones) ne sont pas comptées.
+ */
+public class StatementCounter implements StatementInspector {
+
+    private final ThreadLocal<int[]> count = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        int[] current = count.get();
+        if (current != null) {
+            current[0]++;
+        }
+        return sql;
+    }
+
+    public void start() {
+        count.set(new int[1]);
+    }
+
+    /**
+     * @return le nombre de requêtes depuis {@link #start()} (0 si aucune mesure en cours)
+     */
+    public int stop() {
+        int[] current = count.get();
+        count.remove();
+        return current == null ? 0 : current[0];
+    }
+}
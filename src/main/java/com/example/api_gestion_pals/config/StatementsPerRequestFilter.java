@@ -0,0 +1,53 @@
+package com.example.api_gestion_pals.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Publie {@code pals.http.statements} : nombre de requêtes SQL par appel HTTP, avec les mêmes tags
+ * {@code method} et {@code uri} (route) que {@code http.server.requests}.
+ */
+public class StatementsPerRequestFilter extends OncePerRequestFilter {
+
+    private final StatementCounter statementCounter;
+    private final MeterRegistry meterRegistry;
+
+    public StatementsPerRequestFilter(StatementCounter statementCounter, MeterRegistry meterRegistry) {
+        this.statementCounter = statementCounter;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        statementCounter.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            int statements = statementCounter.stop();
+            // Réponses en flux : le corps est produit dans un autre thread, le compte serait faux
+            if (!request.isAsyncStarted()) {
+                DistributionSummary.builder("pals.http.statements")
+                        .description("Requêtes SQL exécutées par appel HTTP")
+                        .baseUnit("statements")
+                        .tag("method", request.getMethod())
+                        .tag("uri", route(request))
+                        .register(meterRegistry)
+                        .record(statements);
+            }
+        }
+    }
+
+    private static String route(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+}
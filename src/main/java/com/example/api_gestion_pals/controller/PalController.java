@@ -1,48 +1,203 @@
 package com.example.api_gestion_pals.controller;
 
+import com.example.api_gestion_pals.DAO.PalSearchCriteria;
 import com.example.api_gestion_pals.model.PalEntity;
 import com.example.api_gestion_pals.model.PalSkillEntity;
 import com.example.api_gestion_pals.model.PalTypeEntity;
+import com.example.api_gestion_pals.service.PalBatchResult;
+import com.example.api_gestion_pals.service.PalBatchService;
 import com.example.api_gestion_pals.service.PalService;
+import com.example.api_gestion_pals.service.PalSkillSearchResult;
+import com.example.api_gestion_pals.service.PalSuggestion;
+import com.example.api_gestion_pals.service.PalTraitFilter;
+import com.example.api_gestion_pals.service.PalVersionMismatchException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PagedModel;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/pals")
 @SuppressWarnings("unused")
 public class PalController {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int STREAM_CHUNK_SIZE = 100;
+    private static final int MAX_BATCH_SIZE = 10_000;
+    private static final String MERGE_PATCH_JSON = "application/merge-patch+json";
+    private static final String JSON_PATCH_JSON = "application/json-patch+json";
+    private static final Set<String> SEARCH_SORTS = Set.of("id", "name", "rarity", "price");
+
     private final PalService palService;
+    private final PalBatchService palBatchService;
+    private final ObjectMapper objectMapper;
+    private final PalFieldsWriter fieldsWriter;
 
-    public PalController(PalService palService) {
+    public PalController(PalService palService, PalBatchService palBatchService, ObjectMapper objectMapper) {
         this.palService = palService;
+        this.palBatchService = palBatchService;
+        this.objectMapper = objectMapper;
+        this.fieldsWriter = new PalFieldsWriter(objectMapper);
     }
 
+    // Lectures conditionnelles : si If-None-Match correspond, 304 sans construire ni sérialiser la réponse
     @GetMapping("/{id}")
-    public ResponseEntity<PalEntity> getById(@PathVariable int id) {
+    public ResponseEntity<PalEntity> getById(@PathVariable int id, WebRequest request) {
         return palService.getById(id)
-                .map(ResponseEntity::ok)
+                .map(pal -> ifModified(request, etag(pal), () -> pal))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/by-name")
-    public ResponseEntity<PalEntity> getByName(@RequestParam String name) {
+    public ResponseEntity<PalEntity> getByName(@RequestParam String name, WebRequest request) {
         return palService.getByName(name)
-                .map(ResponseEntity::ok)
+                .map(pal -> ifModified(request, etag(pal), () -> pal))
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    // Autocomplétion : noms et clés commençant par q, puis noms proches en cas de faute de frappe
+    @GetMapping("/suggest")
+    public ResponseEntity<List<PalSuggestion>> suggest(@RequestParam String q,
+                                                       @RequestParam(defaultValue = "10") int limit,
+                                                       WebRequest request) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return ifModified(request, catalogETag(), () -> palService.suggest(q, size));
+    }
+
+    // Plein texte sur les compétences, ex. q=burn ou q="short distance" ; un résultat par pal, ses compétences en détail
+    @GetMapping("/skills/search")
+    public ResponseEntity<List<PalSkillSearchResult>> searchSkills(@RequestParam String q,
+                                                                   @RequestParam(defaultValue = "20") int limit,
+                                                                   WebRequest request) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return ifModified(request, catalogETag(), () -> palService.searchSkills(q, size));
+    }
+
+    // fields (optionnel) : sous-ensemble de propriétés à renvoyer, ex. id,name,types,stats.hp
     @GetMapping("/by-type")
-    public List<PalEntity> getByType(@RequestParam String type) {
-        return palService.getByType(type);
+    public ResponseEntity<?> getByType(@RequestParam String type,
+                                       @RequestParam(required = false) String fields,
+                                       WebRequest request) {
+        return catalogList(request, fields, () -> palService.getByType(type));
+    }
+
+    // Ex. type=fire&suitability=kindling&suitabilityMinLevel=2 ; excludeType retire les pals ayant ce type
+    @GetMapping("/by-traits")
+    public ResponseEntity<?> getByTraits(@RequestParam(required = false) List<String> type,
+                                         @RequestParam(defaultValue = "any") String typeMatch,
+                                         @RequestParam(required = false) List<String> excludeType,
+                                         @RequestParam(required = false) String suitability,
+                                         @RequestParam(defaultValue = "1") int suitabilityMinLevel,
+                                         @RequestParam(required = false) String fields,
+                                         WebRequest request) {
+        PalTraitFilter filter = traitFilter(type, typeMatch, excludeType, suitability, suitabilityMinLevel);
+        return catalogList(request, fields, () -> palService.getByTraits(filter));
+    }
+
+    @GetMapping("/by-traits/count")
+    public ResponseEntity<Map<String, Integer>> countByTraits(@RequestParam(required = false) List<String> type,
+                                                              @RequestParam(defaultValue = "any") String typeMatch,
+                                                              @RequestParam(required = false) List<String> excludeType,
+                                                              @RequestParam(required = false) String suitability,
+                                                              @RequestParam(defaultValue = "1") int suitabilityMinLevel,
+                                                              WebRequest request) {
+        PalTraitFilter filter = traitFilter(type, typeMatch, excludeType, suitability, suitabilityMinLevel);
+        return ifModified(request, catalogETag(), () -> Map.of("count", palService.countByTraits(filter)));
+    }
+
+    // Meilleurs pals pour un travail : niveau d'aptitude, puis nourriture consommée et vitesse de marche
+    @GetMapping("/best-for/{suitability}")
+    public ResponseEntity<?> getBestFor(@PathVariable String suitability,
+                                        @RequestParam(defaultValue = "10") int limit,
+                                        @RequestParam(required = false) String fields,
+                                        WebRequest request) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return catalogList(request, fields, () -> palService.getBestFor(suitability, size));
     }
 
     @GetMapping
-    public List<PalEntity> getAll() {
-        return palService.getAll();
+    public ResponseEntity<?> getAll(@RequestParam(required = false) String fields, WebRequest request) {
+        return catalogList(request, fields, palService::getAll);
+    }
+
+    @GetMapping(params = "size")
+    public ResponseEntity<List<PalEntity>> getPage(@RequestParam(required = false) Integer after,
+                                                   @RequestParam int size, WebRequest request) {
+        String etag = catalogETag();
+        if (request.checkNotModified(etag)) {
+            return notModified(etag);
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<PalEntity> page = palService.getPage(after, pageSize);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT);
+        if (page.size() == pageSize) {
+            int next = page.get(page.size() - 1).getId();
+            response.header(HttpHeaders.LINK, "</pals?after=" + next + "&size=" + pageSize + ">; rel=\"next\"");
+        }
+        return response.body(page);
+    }
+
+    /**
+     * Recherche multicritère en base : types (au moins un, ou tous avec {@code typeMatch=all}), aptitude et niveau
+     * minimal, intervalles de rareté, de prix et de stats ({@code stat=hp:80..120}, répétable), triée et paginée.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<PagedModel<PalEntity>> search(@RequestParam(required = false) List<String> type,
+                                                        @RequestParam(defaultValue = "any") String typeMatch,
+                                                        @RequestParam(required = false) String suitability,
+                                                        @RequestParam(required = false) Integer suitabilityMinLevel,
+                                                        @RequestParam(required = false) Integer rarityMin,
+                                                        @RequestParam(required = false) Integer rarityMax,
+                                                        @RequestParam(required = false) Integer priceMin,
+                                                        @RequestParam(required = false) Integer priceMax,
+                                                        @RequestParam(required = false) List<String> stat,
+                                                        @RequestParam(defaultValue = "0") int page,
+                                                        @RequestParam(defaultValue = "20") int size,
+                                                        @RequestParam(defaultValue = "id") String sort,
+                                                        WebRequest request) {
+        PalSearchCriteria criteria;
+        try {
+            criteria = new PalSearchCriteria(
+                    type == null ? List.of() : type.stream().map(t -> t.trim().toLowerCase(Locale.ROOT)).toList(),
+                    allTypes(typeMatch),
+                    suitability == null ? null : suitability.trim().toLowerCase(Locale.ROOT),
+                    suitabilityMinLevel,
+                    new PalSearchCriteria.Range(rarityMin, rarityMax),
+                    new PalSearchCriteria.Range(priceMin, priceMax),
+                    statRanges(stat));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.max(1, Math.min(size, MAX_PAGE_SIZE)), searchSort(sort));
+        return ifModified(request, catalogETag(), () -> new PagedModel<>(palService.search(criteria, pageable)));
+    }
+
+    // Un pal JSON par ligne, écrit au fur et à mesure de la lecture en base
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> stream() {
+        StreamingResponseBody body = out -> palService.forEachPal(STREAM_CHUNK_SIZE, pal -> writeLine(out, pal));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
     @PostMapping
@@ -51,20 +206,64 @@ public class PalController {
         return palService.save(pal);
     }
 
+    // If-Match : la mise à jour n'a lieu que si le pal est toujours à la version de l'ETag (sinon 412)
     @PutMapping("/{id}")
-    public ResponseEntity<PalEntity> update(@PathVariable int id, @RequestBody PalEntity pal) {
+    public ResponseEntity<PalEntity> update(@PathVariable int id, @RequestBody PalEntity pal,
+                                            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         return palService.getById(id)
                 .map(existing -> {
                     pal.setId(id);
+                    Long expectedVersion = expectedVersion(id, ifMatch);
+                    if (expectedVersion != null) {
+                        pal.setVersion(expectedVersion);
+                    }
                     return ResponseEntity.ok(palService.save(pal));
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    // Modification partielle : seul le changement transite et seules les colonnes modifiées sont écrites
+    @PatchMapping(value = "/{id}", consumes = MERGE_PATCH_JSON)
+    public ResponseEntity<PalEntity> mergePatch(@PathVariable int id, @RequestBody JsonNode patch) {
+        return palService.getById(id)
+                .map(existing -> ResponseEntity.ok(palService.mergePatch(id, patch)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PatchMapping(value = "/{id}", consumes = JSON_PATCH_JSON)
+    public ResponseEntity<PalEntity> jsonPatch(@PathVariable int id, @RequestBody JsonNode operations) {
+        return palService.getById(id)
+                .map(existing -> ResponseEntity.ok(palService.jsonPatch(id, operations)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Écritures groupées : un résultat par élément, dans l'ordre du tableau reçu
+    @PostMapping("/batch")
+    public ResponseEntity<List<PalBatchResult>> createBatch(@RequestBody List<PalEntity> pals) {
+        if (pals.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        return ResponseEntity.ok(palBatchService.createAll(pals));
+    }
+
+    @PutMapping("/batch")
+    public ResponseEntity<List<PalBatchResult>> updateBatch(@RequestBody List<PalEntity> pals) {
+        if (pals.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        return ResponseEntity.ok(palBatchService.updateAll(pals));
+    }
+
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void delete(@PathVariable int id) {
-        palService.deleteById(id);
+    public void delete(@PathVariable int id,
+                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = expectedVersion(id, ifMatch);
+        if (expectedVersion != null) {
+            palService.deleteById(id, expectedVersion);
+        } else {
+            palService.deleteById(id);
+        }
     }
 
     @GetMapping("/{id}/skills")
@@ -92,7 +291,16 @@ public class PalController {
 
     @PostMapping("/{id}/types")
     @ResponseStatus(HttpStatus.CREATED)
-    public PalTypeEntity addType(@PathVariable int id, @RequestBody String type) {
+    // Corps en texte brut (water) ou chaîne JSON ("water") : le convertisseur String ne retire pas les guillemets
+    public PalTypeEntity addType(@PathVariable int id, @RequestBody String type,
+                                 @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) MediaType contentType) {
+        if (contentType != null && contentType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+            try {
+                type = objectMapper.readValue(type, String.class);
+            } catch (IOException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Type attendu sous forme de chaîne JSON", e);
+            }
+        }
         return palService.addType(id, type);
     }
 
@@ -103,12 +311,136 @@ public class PalController {
     }
 
     @GetMapping("/sorted/rarity")
-    public List<PalEntity> getSortedByRarity(@RequestParam int limit) {
-        return palService.getSortedByRarity(limit);
+    public ResponseEntity<?> getSortedByRarity(@RequestParam int limit,
+                                               @RequestParam(defaultValue = "0") int offset,
+                                               @RequestParam(required = false) Integer after,
+                                               @RequestParam(required = false) String fields,
+                                               WebRequest request) {
+        return catalogList(request, fields, () -> palService.getSortedByRarity(limit, offset, after));
     }
 
     @GetMapping("/sorted/price")
-    public List<PalEntity> getSortedByPrice(@RequestParam int limit) {
-        return palService.getSortedByPrice(limit);
+    public ResponseEntity<?> getSortedByPrice(@RequestParam int limit,
+                                              @RequestParam(defaultValue = "0") int offset,
+                                              @RequestParam(required = false) Integer after,
+                                              @RequestParam(required = false) String fields,
+                                              WebRequest request) {
+        return catalogList(request, fields, () -> palService.getSortedByPrice(limit, offset, after));
+    }
+
+    // Liste servie par le catalogue : ETag du catalogue, complète (fragments JSON déjà sérialisés) ou réduite
+    // aux champs demandés
+    private ResponseEntity<?> catalogList(WebRequest request, String fields, Supplier<List<PalEntity>> pals) {
+        if (fields == null || fields.isBlank()) {
+            return ifModified(request, catalogETag(), () -> new PalList(pals.get()));
+        }
+        return ifModified(request, catalogETag(), () -> fieldsWriter.select(pals.get(), fields));
+    }
+
+    // Écriture concurrente détectée par @Version entre la lecture et le commit
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public void onConcurrentUpdate() {
+    }
+
+    // 304 sans corps si If-None-Match correspond, sinon 200 avec l'ETag ;
+    // le corps dépend d'Accept (JSON, CBOR, Smile, MessagePack), les caches doivent en tenir compte
+    private static <T> ResponseEntity<T> ifModified(WebRequest request, String etag, Supplier<T> body) {
+        if (request.checkNotModified(etag)) {
+            return notModified(etag);
+        }
+        return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(body.get());
+    }
+
+    // Réponse explicite : dans un Optional.map, null deviendrait un Optional vide, donc un 404
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT).build();
+    }
+
+    // ETag fort d'un pal : id et version
+    private static String etag(PalEntity pal) {
+        return "\"" + pal.getId() + "-" + pal.getVersion() + "\"";
+    }
+
+    // ETag des listes : change à chaque écriture commitée dans le catalogue
+    private String catalogETag() {
+        return "\"catalog-" + palService.getCatalogTag() + "\"";
+    }
+
+    /**
+     * Version attendue d'après If-Match ({@code null} si absent ou « * ») ; un ETag d'un autre pal,
+     * faible ou illisible ne peut pas correspondre.
+     */
+    private static Long expectedVersion(int id, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        String prefix = "\"" + id + "-";
+        if (tag.startsWith(prefix) && tag.endsWith("\"") && tag.length() > prefix.length() + 1) {
+            try {
+                return Long.parseLong(tag.substring(prefix.length(), tag.length() - 1));
+            } catch (NumberFormatException e) {
+                // traité ci-dessous
+            }
+        }
+        throw new PalVersionMismatchException("If-Match ne correspond pas au pal " + id + " : " + ifMatch);
+    }
+
+    private static boolean allTypes(String typeMatch) {
+        return switch (typeMatch.toLowerCase(Locale.ROOT)) {
+            case "any" -> false;
+            case "all" -> true;
+            default -> throw new IllegalArgumentException("typeMatch attendu : any ou all");
+        };
+    }
+
+    private static PalTraitFilter traitFilter(List<String> types, String typeMatch, List<String> excludedTypes,
+                                              String suitability, int minSuitabilityLevel) {
+        try {
+            return new PalTraitFilter(types, allTypes(typeMatch), excludedTypes, suitability, minSuitabilityLevel);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    // « hp:80..120 » -> hp ∈ [80, 120] ; seules les colonnes de PalStatEntity sont acceptées
+    private static Map<String, PalSearchCriteria.Range> statRanges(List<String> stats) {
+        Map<String, PalSearchCriteria.Range> ranges = new LinkedHashMap<>();
+        if (stats == null) {
+            return ranges;
+        }
+        for (String value : stats) {
+            int separator = value.indexOf(':');
+            String name = separator < 0 ? value : value.substring(0, separator).trim();
+            if (separator < 0 || !PalSearchCriteria.STATS.contains(name)) {
+                throw new IllegalArgumentException("Stat attendue sous la forme nom:min..max parmi "
+                        + PalSearchCriteria.STATS + " : " + value);
+            }
+            ranges.put(name, PalSearchCriteria.Range.parse(value.substring(separator + 1)));
+        }
+        return ranges;
+    }
+
+    // « price,desc » ; l'id départage toujours les égalités pour que les pages soient stables
+    private static Sort searchSort(String sort) {
+        String[] parts = sort.split(",");
+        String property = parts[0].trim();
+        if (!SEARCH_SORTS.contains(property)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Tri attendu parmi " + SEARCH_SORTS);
+        }
+        Sort.Direction direction = parts.length > 1 && parts[1].trim().equalsIgnoreCase("desc")
+                ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort result = Sort.by(direction, property);
+        return property.equals("id") ? result : result.and(Sort.by("id"));
+    }
+
+    private void writeLine(OutputStream out, PalEntity pal) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(pal));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
@@ -0,0 +1,115 @@
+package com.example.api_gestion_pals.controller;
+
+import com.example.api_gestion_pals.model.*;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Sérialisation partielle (« sparse fieldsets ») : {@code ?fields=id,name,types,stats.hp}.
+ * <p>
+ * Les listes sont servies par le catalogue en mémoire : aucune association n'est chargée à la demande,
+ * et les propriétés non demandées ne sont ni lues ni écrites. Un chemin désigne une propriété JSON, les
+ * éléments des listes d'enfants compris ({@code skills.name}) ; demander une association ({@code types})
+ * l'inclut entièrement. Un nom inconnu ne sélectionne rien.
+ * <p>
+ * La sélection est écrite directement dans le générateur du convertisseur choisi par Accept :
+ * le filtrage vaut pour JSON comme pour les formats binaires.
+ */
+class PalFieldsWriter {
+
+    private static final String FILTER_ID = "palFields";
+
+    @JsonFilter(FILTER_ID)
+    private abstract static class FieldsMixin {
+    }
+
+    private final ObjectMapper filteringMapper;
+
+    PalFieldsWriter(ObjectMapper objectMapper) {
+        // Copie : le filtre ne concerne que les réponses partielles, pas l'ObjectMapper de l'application
+        this.filteringMapper = objectMapper.copy()
+                .addMixIn(PalEntity.class, FieldsMixin.class)
+                .addMixIn(PalTypeEntity.class, FieldsMixin.class)
+                .addMixIn(PalSkillEntity.class, FieldsMixin.class)
+                .addMixIn(PalSuitabilityEntity.class, FieldsMixin.class)
+                .addMixIn(PalStatEntity.class, FieldsMixin.class);
+    }
+
+    JsonSerializable select(Object value, String fields) {
+        Set<String> paths = new HashSet<>();
+        for (String field : fields.split(",")) {
+            if (!field.isBlank()) {
+                paths.add(field.trim());
+            }
+        }
+        return new Selection(filteringMapper
+                .writer(new SimpleFilterProvider().addFilter(FILTER_ID, new PathFilter(paths))), value);
+    }
+
+    private record Selection(ObjectWriter writer, Object value) implements JsonSerializable {
+
+        @Override
+        public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            writer.writeValue(gen, value);
+        }
+
+        @Override
+        public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer)
+                throws IOException {
+            serialize(gen, serializers);
+        }
+    }
+
+    private static final class PathFilter extends SimpleBeanPropertyFilter {
+
+        private final Set<String> paths;
+
+        private PathFilter(Set<String> paths) {
+            this.paths = paths;
+        }
+
+        @Override
+        public void serializeAsField(Object pojo, JsonGenerator gen, SerializerProvider provider, PropertyWriter writer)
+                throws Exception {
+            if (selected(path(gen.getOutputContext(), writer.getName()))) {
+                writer.serializeAsField(pojo, gen, provider);
+            } else if (!gen.canOmitFields()) {
+                writer.serializeAsOmittedField(pojo, gen, provider);
+            }
+        }
+
+        // Chemin de la propriété depuis la racine, en ignorant les niveaux de tableau
+        private static String path(JsonStreamContext context, String name) {
+            Deque<String> segments = new ArrayDeque<>();
+            segments.push(name);
+            for (JsonStreamContext parent = context.getParent(); parent != null; parent = parent.getParent()) {
+                if (parent.inObject() && parent.getCurrentName() != null) {
+                    segments.push(parent.getCurrentName());
+                }
+            }
+            return String.join(".", segments);
+        }
+
+        // Demandé, sous un chemin demandé (types → types.type), ou ancêtre d'un chemin demandé (stats pour stats.hp)
+        private boolean selected(String path) {
+            for (String requested : paths) {
+                if (path.equals(requested) || path.startsWith(requested + ".") || requested.startsWith(path + ".")) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.api_gestion_pals.controller;
+
+import com.example.api_gestion_pals.model.PalEntity;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.List;
+
+/**
+ * Liste complète de pals du catalogue, renvoyée par les endpoints de liste sans {@code fields}.
+ * En JSON, {@link PalListHttpMessageConverter} l'écrit à partir des fragments de chaque pal ; les autres
+ * formats la sérialisent comme la liste elle-même.
+ */
+public record PalList(@JsonValue List<PalEntity> pals) {
+}
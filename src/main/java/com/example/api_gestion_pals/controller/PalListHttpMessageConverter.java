@@ -0,0 +1,101 @@
+package com.example.api_gestion_pals.controller;
+
+import com.example.api_gestion_pals.model.PalEntity;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Écrit une {@link PalList} en JSON en concaténant le JSON déjà sérialisé de chaque pal.
+ * <p>
+ * Les pals du catalogue sont des copies jamais modifiées : une écriture remplace l'instance du pal concerné
+ * et garde les autres. Le fragment d'un pal est donc conservé avec l'instance qui l'a produit et resservi tant
+ * que le catalogue renvoie cette même instance ; seul un pal modifié est resérialisé. Chaque écriture commitée
+ * retire les fragments des pals touchés ({@link #forget}) : ceux des pals supprimés ne restent pas. Les fragments
+ * viennent de l'ObjectMapper de l'application : le corps est identique à celui de MappingJackson2HttpMessageConverter.
+ */
+public class PalListHttpMessageConverter extends AbstractHttpMessageConverter<PalList> {
+
+    private record Fragment(PalEntity pal, byte[] json) {
+    }
+
+    private final ObjectMapper objectMapper;
+    // Une entrée par id, retirée à chaque écriture du pal
+    private final Map<Integer, Fragment> fragments = new ConcurrentHashMap<>();
+
+    public PalListHttpMessageConverter(ObjectMapper objectMapper) {
+        super(StandardCharsets.UTF_8, MediaType.APPLICATION_JSON);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return PalList.class.isAssignableFrom(clazz);
+    }
+
+    // Réponses seulement : les corps de requête restent lus par le convertisseur JSON de Jackson
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected PalList readInternal(Class<? extends PalList> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("PalList n'est pas lisible", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(PalList list, HttpOutputMessage outputMessage) throws IOException {
+        List<PalEntity> pals = list.pals();
+        byte[][] json = new byte[pals.size()][];
+        long length = 2 + Math.max(pals.size() - 1, 0);
+        for (int i = 0; i < json.length; i++) {
+            json[i] = fragment(pals.get(i));
+            length += json[i].length;
+        }
+        // En-têtes envoyés au premier getBody() : la longueur est connue avant d'écrire
+        outputMessage.getHeaders().setContentLength(length);
+        OutputStream out = outputMessage.getBody();
+        out.write('[');
+        for (int i = 0; i < json.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.write(json[i]);
+        }
+        out.write(']');
+        out.flush();
+    }
+
+    public void forget(Collection<Integer> palIds) {
+        palIds.forEach(fragments::remove);
+    }
+
+    byte[] fragment(PalEntity pal) {
+        Fragment fragment = fragments.get(pal.getId());
+        if (fragment != null && fragment.pal() == pal) {
+            return fragment.json();
+        }
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(pal);
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotWritableException("Pal " + pal.getId() + " non sérialisable : " + e.getOriginalMessage(), e);
+        }
+        fragments.put(pal.getId(), new Fragment(pal, json));
+        return json;
+    }
+}
@@ -2,15 +2,22 @@ package com.example.api_gestion_pals.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@DynamicUpdate
 @Table(name = "pals")
+@NamedEntityGraph(name = PalEntity.WITH_STATS, attributeNodes = @NamedAttributeNode("stats"))
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class PalEntity {
 
+    public static final String WITH_STATS = "PalEntity.withStats";
+
     @Id
     private Integer id;
 
@@ -26,13 +33,20 @@ public class PalEntity {
 
     private String size;
 
+    // Incrémentée à chaque écriture du pal ou de ses enfants (voir PalWrites) : sert d'ETag
+    @Version
+    private Long version;
+
     @OneToMany(mappedBy = "pal", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Fetch(FetchMode.SUBSELECT)
     private List<PalTypeEntity> types = new ArrayList<>();
 
     @OneToMany(mappedBy = "pal", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Fetch(FetchMode.SUBSELECT)
     private List<PalSkillEntity> skills = new ArrayList<>();
 
     @OneToMany(mappedBy = "pal", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Fetch(FetchMode.SUBSELECT)
     private List<PalSuitabilityEntity> suitabilities = new ArrayList<>();
 
     @OneToOne(mappedBy = "pal", fetch = FetchType.LAZY)
@@ -125,6 +139,12 @@ public class PalEntity {
     public void setStats(PalStatEntity stats) {
         this.stats = stats;
     }
-}
 
+    public Long getVersion() {
+        return version;
+    }
 
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
@@ -3,14 +3,17 @@ package com.example.api_gestion_pals.model;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
+@DynamicUpdate
 @Table(name = "pal_skills")
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class PalSkillEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pal_skills_seq")
+    @SequenceGenerator(name = "pal_skills_seq", sequenceName = "pal_skills_seq", allocationSize = 50)
     private Long id;
 
     private Integer level;
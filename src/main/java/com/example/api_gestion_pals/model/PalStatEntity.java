@@ -3,14 +3,17 @@ package com.example.api_gestion_pals.model;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
+@DynamicUpdate
 @Table(name = "pal_stats")
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class PalStatEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pal_stats_seq")
+    @SequenceGenerator(name = "pal_stats_seq", sequenceName = "pal_stats_seq", allocationSize = 50)
     private Long id;
 
     private Integer hp;
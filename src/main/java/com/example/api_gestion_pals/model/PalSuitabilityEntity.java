@@ -3,14 +3,18 @@ package com.example.api_gestion_pals.model;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
-@Table(name = "pal_suitabilities")
+@DynamicUpdate
+@Table(name = "pal_suitabilities",
+        indexes = @Index(name = "idx_pal_suitabilities_type_pal_level", columnList = "type, pal_id, level"))
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class PalSuitabilityEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pal_suitabilities_seq")
+    @SequenceGenerator(name = "pal_suitabilities_seq", sequenceName = "pal_suitabilities_seq", allocationSize = 50)
     private Long id;
 
     private String type;
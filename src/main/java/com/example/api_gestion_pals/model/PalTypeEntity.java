@@ -5,12 +5,14 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "pal_types")
+// Recherche par type : égalité sur type puis corrélation sur pal_id, résolues par le même index
+@Table(name = "pal_types", indexes = @Index(name = "idx_pal_types_type_pal", columnList = "type, pal_id"))
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class PalTypeEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pal_types_seq")
+    @SequenceGenerator(name = "pal_types_seq", sequenceName = "pal_types_seq", allocationSize = 50)
     private Long id;
 
     private String type;
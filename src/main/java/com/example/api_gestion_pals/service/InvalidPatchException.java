@@ -0,0 +1,15 @@
+package com.example.api_gestion_pals.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Patch mal formé, inapplicable au document courant, ou opération {@code test} en échec.
+ */
+@ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+public class InvalidPatchException extends IllegalArgumentException {
+
+    public InvalidPatchException(String message) {
+        super(message);
+    }
+}
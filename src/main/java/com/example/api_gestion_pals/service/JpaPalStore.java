@@ -0,0 +1,158 @@
+package com.example.api_gestion_pals.service;
+
+import com.example.api_gestion_pals.DAO.PalDAO;
+import com.example.api_gestion_pals.DAO.PalSearchCriteria;
+import com.example.api_gestion_pals.DAO.PalSpecifications;
+import com.example.api_gestion_pals.model.PalEntity;
+import com.example.api_gestion_pals.model.PalStatEntity;
+import jakarta.persistence.EntityManager;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Stockage relationnel : tables pals, pal_types, pal_skills, pal_suitabilities et pal_stats.
+ * Les entités renvoyées sont gérées par le contexte de persistance de la transaction appelante.
+ * {@code @Repository} : les exceptions JPA levées par les flush explicites (conflit de {@code @Version} entre deux
+ * écritures simultanées...) sont traduites en exceptions Spring, comme celles des repositories Spring Data.
+ */
+@Repository
+@Profile("!mongo")
+public class JpaPalStore implements PalStore {
+
+    private final PalDAO palDAO;
+    private final EntityManager entityManager;
+
+    public JpaPalStore(PalDAO palDAO, EntityManager entityManager) {
+        this.palDAO = palDAO;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public long count() {
+        return palDAO.count();
+    }
+
+    @Override
+    public List<PalEntity> findAll() {
+        return palDAO.findAll();
+    }
+
+    @Override
+    public Optional<PalEntity> findById(int id) {
+        return palDAO.findById(id);
+    }
+
+    @Override
+    public List<PalEntity> findByIdIn(Collection<Integer> ids) {
+        return palDAO.findByIdIn(ids);
+    }
+
+    @Override
+    public boolean existsById(int id) {
+        return palDAO.existsById(id);
+    }
+
+    @Override
+    public List<PalEntity> findPage(Integer after, int size) {
+        return palDAO.findByIdGreaterThanOrderByIdAsc(after == null ? Integer.MIN_VALUE : after, Limit.of(size));
+    }
+
+    // Le contexte de persistance est vidé après chaque tranche : la mémoire ne dépend pas de la taille du catalogue
+    @Override
+    public void forEach(int chunkSize, Consumer<PalEntity> consumer) {
+        int after = Integer.MIN_VALUE;
+        List<PalEntity> chunk;
+        do {
+            chunk = palDAO.findByIdGreaterThanOrderByIdAsc(after, Limit.of(chunkSize));
+            chunk.forEach(consumer);
+            if (!chunk.isEmpty()) {
+                after = chunk.get(chunk.size() - 1).getId();
+            }
+            entityManager.clear();
+        } while (chunk.size() == chunkSize);
+    }
+
+    @Override
+    public Page<PalEntity> search(PalSearchCriteria criteria, Pageable pageable) {
+        return palDAO.findAll(PalSpecifications.matching(criteria), pageable);
+    }
+
+    @Override
+    public PalEntity create(PalEntity pal) {
+        // Pour une nouvelle entité, gérer manuellement la persistance comme dans PalDataLoader
+        PalStatEntity stats = PalWrites.prepareForCreate(pal);
+
+        // Sauvegarder le PalEntity (les relations @OneToMany seront sauvegardées en cascade)
+        PalEntity savedPal = palDAO.save(pal);
+        entityManager.flush();
+
+        // Recharger l'entité gérée depuis la base
+        PalEntity managedPal = entityManager.find(PalEntity.class, savedPal.getId());
+
+        // Sauvegarder manuellement le PalStatEntity
+        PalWrites.persistStats(entityManager, managedPal, stats);
+        return managedPal;
+    }
+
+    @Override
+    public PalEntity update(PalEntity pal) {
+        // Pour une mise à jour, charger l'entité existante et mettre à jour
+        PalEntity existing = palDAO.findById(pal.getId())
+                .orElseThrow(() -> new IllegalArgumentException("Pal non trouvé : " + pal.getId()));
+
+        PalWrites.applyUpdate(entityManager, existing, pal);
+
+        PalEntity saved = palDAO.save(existing);
+        entityManager.flush();
+        return saved;
+    }
+
+    @Override
+    public PalEntity modify(int id, Consumer<PalEntity> change) {
+        PalEntity pal = palDAO.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Pal non trouvé : " + id));
+        change.accept(pal);
+        palDAO.save(pal);
+        PalWrites.touch(entityManager, pal);
+        return pal;
+    }
+
+    @Override
+    public void deleteById(int id) {
+        palDAO.deleteById(id);
+    }
+
+    @Override
+    public void deleteById(int id, long expectedVersion) {
+        PalEntity existing = palDAO.findById(id)
+                .orElseThrow(() -> new PalVersionMismatchException("Pal non trouvé : " + id));
+        PalWrites.checkVersion(existing, expectedVersion);
+        palDAO.delete(existing);
+    }
+
+    // Pas de flush par pal : les inserts partent en batch JDBC au flush du lot
+    @Override
+    public void insert(PalEntity pal) {
+        PalStatEntity stats = PalWrites.prepareForCreate(pal);
+        entityManager.persist(pal);
+        PalWrites.persistStats(entityManager, pal, stats);
+    }
+
+    @Override
+    public void replace(PalEntity current, PalEntity pal) {
+        PalWrites.applyUpdate(entityManager, current, pal);
+    }
+
+    @Override
+    public void flush() {
+        entityManager.flush();
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.api_gestion_pals.service;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Application de patchs sur des arbres Jackson : JSON Merge Patch (RFC 7396) et JSON Patch (RFC 6902).
+ * Le document reçu n'est pas modifié, une copie patchée est renvoyée.
+ */
+final class JsonPatches {
+
+    private JsonPatches() {
+    }
+
+    static JsonNode mergePatch(JsonNode target, JsonNode patch) {
+        if (!patch.isObject()) {
+            return patch.deepCopy();
+        }
+        ObjectNode result = target != null && target.isObject() ? ((ObjectNode) target).deepCopy() : JsonNodeFactory.instance.objectNode();
+        Iterator<Map.Entry<String, JsonNode>> fields = patch.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (field.getValue().isNull()) {
+                result.remove(field.getKey());
+            } else {
+                result.set(field.getKey(), mergePatch(result.get(field.getKey()), field.getValue()));
+            }
+        }
+        return result;
+    }
+
+    static JsonNode jsonPatch(JsonNode target, JsonNode operations) {
+        if (!operations.isArray()) {
+            throw new InvalidPatchException("Un JSON Patch est un tableau d'opérations");
+        }
+        JsonNode document = target.deepCopy();
+        for (JsonNode operation : operations) {
+            document = apply(document, operation);
+        }
+        return document;
+    }
+
+    private static JsonNode apply(JsonNode document, JsonNode operation) {
+        String op = operation.path("op").asText();
+        JsonPointer path = pointer(operation, "path");
+        return switch (op) {
+            case "add" -> add(document, path, value(operation));
+            case "remove" -> remove(document, path);
+            case "replace" -> path.matches() ? value(operation) : add(remove(document, path), path, value(operation));
+            case "move" -> {
+                JsonPointer from = pointer(operation, "from");
+                JsonNode moved = get(document, from);
+                yield add(remove(document, from), path, moved);
+            }
+            case "copy" -> add(document, path, get(document, pointer(operation, "from")).deepCopy());
+            case "test" -> {
+                if (!get(document, path).equals(value(operation))) {
+                    throw new InvalidPatchException("Test en échec sur " + path);
+                }
+                yield document;
+            }
+            default -> throw new InvalidPatchException("Opération inconnue : " + op);
+        };
+    }
+
+    private static JsonNode add(JsonNode document, JsonPointer path, JsonNode value) {
+        if (path.matches()) {
+            return value;
+        }
+        JsonNode parent = get(document, path.head());
+        String name = path.last().getMatchingProperty();
+        if (parent.isObject()) {
+            ((ObjectNode) parent).set(name, value);
+        } else if (parent.isArray()) {
+            ArrayNode array = (ArrayNode) parent;
+            int index = "-".equals(name) ? array.size() : index(name, array.size());
+            array.insert(index, value);
+        } else {
+            throw new InvalidPatchException("Chemin introuvable : " + path);
+        }
+        return document;
+    }
+
+    private static JsonNode remove(JsonNode document, JsonPointer path) {
+        if (path.matches()) {
+            throw new InvalidPatchException("Impossible de retirer le document entier");
+        }
+        JsonNode parent = get(document, path.head());
+        String name = path.last().getMatchingProperty();
+        if (parent.isObject() && parent.has(name)) {
+            ((ObjectNode) parent).remove(name);
+        } else if (parent.isArray()) {
+            ((ArrayNode) parent).remove(index(name, parent.size() - 1));
+        } else {
+            throw new InvalidPatchException("Chemin introuvable : " + path);
+        }
+        return document;
+    }
+
+    private static JsonNode get(JsonNode document, JsonPointer path) {
+        JsonNode node = document.at(path);
+        if (node.isMissingNode()) {
+            throw new InvalidPatchException("Chemin introuvable : " + path);
+        }
+        return node;
+    }
+
+    private static int index(String token, int max) {
+        try {
+            int index = Integer.parseInt(token);
+            if (index >= 0 && index <= max) {
+                return index;
+            }
+        } catch (NumberFormatException e) {
+            // traité ci-dessous
+        }
+        throw new InvalidPatchException("Index de tableau invalide : " + token);
+    }
+
+    private static JsonPointer pointer(JsonNode operation, String field) {
+        JsonNode pointer = operation.get(field);
+        if (pointer == null || !pointer.isTextual()) {
+            throw new InvalidPatchException("Champ « " + field + " » manquant dans l'opération " + operation);
+        }
+        try {
+            return JsonPointer.compile(pointer.asText());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidPatchException("Pointeur JSON invalide : " + pointer.asText());
+        }
+    }
+
+    private static JsonNode value(JsonNode operation) {
+        if (!operation.has("value")) {
+            throw new InvalidPatchException("Champ « value » manquant dans l'opération " + operation);
+        }
+        return operation.get("value");
+    }
+}
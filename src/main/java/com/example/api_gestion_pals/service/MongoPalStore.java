@@ -0,0 +1,326 @@
+package com.example.api_gestion_pals.service;
+
+import com.example.api_gestion_pals.DAO.PalDocument;
+import com.example.api_gestion_pals.DAO.PalSearchCriteria;
+import com.example.api_gestion_pals.model.*;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Stockage documentaire du profil {@code mongo} : un {@link PalDocument} par pal dans la collection pals.
+ * <p>
+ * Les pals lus sont des {@link PalEntity} détachés. Les enfants gardent l'id stocké dans le document
+ * (voir {@link PalDocument}) ; à l'écriture, un enfant reçu sans id connu reprend celui de l'enfant de même
+ * clé naturelle, comme la fusion de JpaPalStore, ou en reçoit un nouveau. Chaque écriture remplace le
+ * document entier à condition que sa version n'ait pas changé depuis la lecture, puis l'incrémente.
+ */
+@Component
+@Profile("mongo")
+public class MongoPalStore implements PalStore {
+
+    private static final Map<String, String> STAT_FIELDS = Map.of(
+            "hp", "stats.hp",
+            "meleeAttack", "stats.attack.melee",
+            "rangedAttack", "stats.attack.ranged",
+            "defense", "stats.defense",
+            "rideSpeed", "stats.speed.ride",
+            "runSpeed", "stats.speed.run",
+            "walkSpeed", "stats.speed.walk",
+            "stamina", "stats.stamina",
+            "support", "stats.support",
+            "food", "stats.food");
+
+    // Écritures groupées en attente, par thread : PalBatchService traite un lot par transaction dans un seul thread
+    private static final class Batch {
+        private final BulkOperations operations;
+        private int writes;
+        private int replacements;
+
+        private Batch(BulkOperations operations) {
+            this.operations = operations;
+        }
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final ThreadLocal<Batch> batch = new ThreadLocal<>();
+
+    public MongoPalStore(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public long count() {
+        return mongoTemplate.count(new Query(), PalDocument.class);
+    }
+
+    @Override
+    public List<PalEntity> findAll() {
+        return toEntities(mongoTemplate.find(new Query().with(Sort.by("id")), PalDocument.class));
+    }
+
+    @Override
+    public Optional<PalEntity> findById(int id) {
+        return Optional.ofNullable(mongoTemplate.findById(id, PalDocument.class)).map(PalDocument::toEntity);
+    }
+
+    @Override
+    public List<PalEntity> findByIdIn(Collection<Integer> ids) {
+        return toEntities(mongoTemplate.find(query(where("id").in(ids)), PalDocument.class));
+    }
+
+    @Override
+    public boolean existsById(int id) {
+        return mongoTemplate.exists(query(where("id").is(id)), PalDocument.class);
+    }
+
+    @Override
+    public List<PalEntity> findPage(Integer after, int size) {
+        Query page = query(where("id").gt(after == null ? Integer.MIN_VALUE : after))
+                .with(Sort.by("id"))
+                .limit(size);
+        return toEntities(mongoTemplate.find(page, PalDocument.class));
+    }
+
+    @Override
+    public void forEach(int chunkSize, Consumer<PalEntity> consumer) {
+        Integer after = null;
+        List<PalEntity> chunk;
+        do {
+            chunk = findPage(after, chunkSize);
+            chunk.forEach(consumer);
+            if (!chunk.isEmpty()) {
+                after = chunk.get(chunk.size() - 1).getId();
+            }
+        } while (chunk.size() == chunkSize);
+    }
+
+    /**
+     * Même sémantique que PalSpecifications : $all ou $in sur types, $elemMatch sur les aptitudes
+     * (type et niveau dans le même élément), bornes sur les champs et les stats imbriquées.
+     */
+    @Override
+    public Page<PalEntity> search(PalSearchCriteria criteria, Pageable pageable) {
+        List<Criteria> filters = new ArrayList<>();
+        List<String> types = criteria.types() == null ? List.of() : criteria.types();
+        if (!types.isEmpty()) {
+            filters.add(criteria.allTypes() ? where("types.type").all(types) : where("types.type").in(types));
+        }
+        if (criteria.suitability() != null) {
+            int minLevel = criteria.minSuitabilityLevel() == null ? 1 : criteria.minSuitabilityLevel();
+            filters.add(where("suitability").elemMatch(where("type").is(criteria.suitability()).and("level").gte(minLevel)));
+        }
+        addRange(filters, "rarity", criteria.rarity());
+        addRange(filters, "price", criteria.price());
+        Map<String, PalSearchCriteria.Range> stats = criteria.stats() == null ? Map.of() : criteria.stats();
+        stats.forEach((stat, range) -> addRange(filters, STAT_FIELDS.get(stat), range));
+
+        Query search = filters.isEmpty() ? new Query() : query(new Criteria().andOperator(filters));
+        List<PalDocument> page = mongoTemplate.find(Query.of(search).with(pageable), PalDocument.class);
+        return PageableExecutionUtils.getPage(toEntities(page), pageable,
+                () -> mongoTemplate.count(search, PalDocument.class));
+    }
+
+    @Override
+    public PalEntity create(PalEntity pal) {
+        keepChildIds(null, pal);
+        return mongoTemplate.insert(PalDocument.of(pal, 0)).toEntity();
+    }
+
+    @Override
+    public PalEntity update(PalEntity pal) {
+        PalDocument current = mongoTemplate.findById(pal.getId(), PalDocument.class);
+        if (current == null) {
+            throw new IllegalArgumentException("Pal non trouvé : " + pal.getId());
+        }
+        checkVersion(current, pal.getVersion());
+        keepChildIds(current.toEntity(), pal);
+        return replace(current, PalDocument.of(pal, current.version() + 1).withDefaults(current)).toEntity();
+    }
+
+    @Override
+    public PalEntity modify(int id, Consumer<PalEntity> change) {
+        PalDocument current = mongoTemplate.findById(id, PalDocument.class);
+        if (current == null) {
+            throw new IllegalArgumentException("Pal non trouvé : " + id);
+        }
+        PalEntity pal = current.toEntity();
+        change.accept(pal);
+        keepChildIds(current.toEntity(), pal);
+        // Les enfants ajoutés reçoivent leur id ici, comme à la prochaine lecture
+        replace(current, PalDocument.of(pal, current.version() + 1));
+        pal.setVersion(current.version() + 1);
+        return pal;
+    }
+
+    @Override
+    public void deleteById(int id) {
+        mongoTemplate.remove(query(where("id").is(id)), PalDocument.class);
+    }
+
+    @Override
+    public void deleteById(int id, long expectedVersion) {
+        DeleteResult result = mongoTemplate.remove(query(where("id").is(id).and("version").is(expectedVersion)),
+                PalDocument.class);
+        if (result.getDeletedCount() == 0) {
+            PalDocument current = mongoTemplate.findById(id, PalDocument.class);
+            if (current == null) {
+                throw new PalVersionMismatchException("Pal non trouvé : " + id);
+            }
+            throw new PalVersionMismatchException(id, expectedVersion, current.version());
+        }
+    }
+
+    @Override
+    public void insert(PalEntity pal) {
+        keepChildIds(null, pal);
+        Batch pending = pendingBatch();
+        pending.operations.insert(PalDocument.of(pal, 0));
+        pending.writes++;
+    }
+
+    @Override
+    public void replace(PalEntity current, PalEntity pal) {
+        if (pal.getVersion() != null && !pal.getVersion().equals(current.getVersion())) {
+            throw new PalVersionMismatchException(current.getId(), pal.getVersion(), current.getVersion());
+        }
+        long version = current.getVersion();
+        keepChildIds(current, pal);
+        PalDocument document = PalDocument.of(pal, version + 1).withDefaults(PalDocument.of(current, version));
+        Batch pending = pendingBatch();
+        pending.operations.replaceOne(query(where("id").is(current.getId()).and("version").is(version)), document);
+        pending.writes++;
+        pending.replacements++;
+    }
+
+    /**
+     * Envoie les écritures groupées en une requête bulk non ordonnée. Un remplacement qui ne trouve plus le
+     * document à sa version fait échouer le lot, que PalBatchService rejoue alors élément par élément.
+     */
+    @Override
+    public void flush() {
+        Batch pending = batch.get();
+        batch.remove();
+        if (pending == null || pending.writes == 0) {
+            return;
+        }
+        BulkWriteResult result = pending.operations.execute();
+        if (result.getMatchedCount() < pending.replacements) {
+            throw new OptimisticLockingFailureException("Pals modifiés pendant le lot : "
+                    + (pending.replacements - result.getMatchedCount()) + " remplacement(s) sans effet");
+        }
+    }
+
+    private Batch pendingBatch() {
+        Batch pending = batch.get();
+        if (pending == null) {
+            pending = new Batch(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PalDocument.class));
+            batch.set(pending);
+        }
+        return pending;
+    }
+
+    private PalDocument replace(PalDocument current, PalDocument next) {
+        UpdateResult result = mongoTemplate.replace(
+                query(where("id").is(current.id()).and("version").is(current.version())), next);
+        if (result.getMatchedCount() == 0) {
+            throw new OptimisticLockingFailureException("Pal " + current.id() + " modifié pendant l'écriture");
+        }
+        return next;
+    }
+
+    private static void checkVersion(PalDocument current, Long expected) {
+        if (expected != null && expected != current.version()) {
+            throw new PalVersionMismatchException(current.id(), expected, current.version());
+        }
+    }
+
+    private static void addRange(List<Criteria> filters, String field, PalSearchCriteria.Range range) {
+        if (range == null || (range.min() == null && range.max() == null)) {
+            return;
+        }
+        Criteria criteria = where(field);
+        if (range.min() != null) {
+            criteria = criteria.gte(range.min());
+        }
+        if (range.max() != null) {
+            criteria = criteria.lte(range.max());
+        }
+        filters.add(criteria);
+    }
+
+    private static List<PalEntity> toEntities(List<PalDocument> documents) {
+        List<PalEntity> pals = new ArrayList<>(documents.size());
+        documents.forEach(document -> pals.add(document.toEntity()));
+        return pals;
+    }
+
+    /**
+     * Ids des enfants de {@code pal} avant écriture : ceux de {@code current} (pal stocké, {@code null} pour une
+     * création) sont conservés, d'abord par id puis par clé naturelle ; les autres sont effacés, pour que
+     * {@link PalDocument#of(PalEntity, long)} en attribue de nouveaux.
+     */
+    private static void keepChildIds(PalEntity current, PalEntity pal) {
+        if (pal.getTypes() != null) {
+            keepIds(current == null ? List.of() : current.getTypes(), pal.getTypes(),
+                    PalTypeEntity::getId, PalTypeEntity::setId, PalTypeEntity::getType);
+        }
+        if (pal.getSkills() != null) {
+            keepIds(current == null ? List.of() : current.getSkills(), pal.getSkills(),
+                    PalSkillEntity::getId, PalSkillEntity::setId, skill -> Arrays.asList(skill.getName(), skill.getLevel()));
+        }
+        if (pal.getSuitabilities() != null) {
+            keepIds(current == null ? List.of() : current.getSuitabilities(), pal.getSuitabilities(),
+                    PalSuitabilityEntity::getId, PalSuitabilityEntity::setId, PalSuitabilityEntity::getType);
+        }
+    }
+
+    // Mêmes règles d'appariement que PalWrites.mergeChildren : un id stocké n'est repris qu'une fois
+    private static <T> void keepIds(List<T> current, List<T> incoming, Function<T, Long> id,
+                                    BiConsumer<T, Long> setId, Function<T, Object> naturalKey) {
+        Map<Long, T> byId = new HashMap<>();
+        Map<Object, Deque<Long>> byKey = new HashMap<>();
+        for (T child : current) {
+            byId.put(id.apply(child), child);
+            byKey.computeIfAbsent(naturalKey.apply(child), key -> new ArrayDeque<>()).add(id.apply(child));
+        }
+        Set<Long> taken = new HashSet<>();
+        List<T> unmatched = new ArrayList<>();
+        for (T child : incoming) {
+            Long childId = id.apply(child);
+            if (childId == null || !byId.containsKey(childId) || !taken.add(childId)) {
+                unmatched.add(child);
+            }
+        }
+        for (T child : unmatched) {
+            Long match = null;
+            Deque<Long> candidates = byKey.getOrDefault(naturalKey.apply(child), new ArrayDeque<>());
+            while (match == null && !candidates.isEmpty()) {
+                Long candidate = candidates.poll();
+                if (taken.add(candidate)) {
+                    match = candidate;
+                }
+            }
+            setId.accept(child, match);
+        }
+    }
+}
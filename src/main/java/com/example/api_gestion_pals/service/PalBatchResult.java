@@ -0,0 +1,25 @@
+package com.example.api_gestion_pals.service;
+
+/**
+ * Résultat d'un élément d'une écriture groupée ; {@code index} est sa position dans le tableau reçu.
+ */
+public record PalBatchResult(int index, Integer id, Status status, String error) {
+
+    public enum Status {
+        CREATED,
+        UPDATED,
+        FAILED
+    }
+
+    static PalBatchResult created(int index, Integer id) {
+        return new PalBatchResult(index, id, Status.CREATED, null);
+    }
+
+    static PalBatchResult updated(int index, Integer id) {
+        return new PalBatchResult(index, id, Status.UPDATED, null);
+    }
+
+    static PalBatchResult failed(int index, Integer id, String error) {
+        return new PalBatchResult(index, id, Status.FAILED, error);
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.api_gestion_pals.service;
+
+import com.example.api_gestion_pals.model.PalEntity;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Écritures groupées : les pals sont traités par lots de {@code pals.batch.chunk-size}, une transaction par lot.
+ * Dans un lot, les pals existants sont chargés en une fois et les insertions partent en batch JDBC au flush.
+ * <p>
+ * Une erreur de validation (id manquant, en double, déjà pris ou inconnu, version périmée) n'écarte que l'élément concerné.
+ * Si la base rejette un lot, il est rejoué élément par élément pour isoler les éléments fautifs.
+ */
+@Service
+@Timed(value = "pals.service", description = "Durée des appels aux services de pals (tags class et method)")
+public class PalBatchService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PalBatchService.class);
+
+    private enum Mode {
+        CREATE,
+        UPDATE
+    }
+
+    private record Item(int index, PalEntity pal) {
+    }
+
+    private final PalStore palStore;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate chunkTransaction;
+    private final int chunkSize;
+
+    public PalBatchService(PalStore palStore, ApplicationEventPublisher eventPublisher,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${pals.batch.chunk-size:500}") int chunkSize) {
+        this.palStore = palStore;
+        this.eventPublisher = eventPublisher;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Crée les pals reçus ; un pal dont l'id existe déjà est refusé.
+     */
+    public List<PalBatchResult> createAll(List<PalEntity> pals) {
+        return run(pals, Mode.CREATE);
+    }
+
+    /**
+     * Met à jour les pals reçus (même remplacement que {@link PalService#save(PalEntity)}) ; un id inconnu est refusé.
+     */
+    public List<PalBatchResult> updateAll(List<PalEntity> pals) {
+        return run(pals, Mode.UPDATE);
+    }
+
+    private List<PalBatchResult> run(List<PalEntity> pals, Mode mode) {
+        long start = System.nanoTime();
+        List<PalBatchResult> results = new ArrayList<>(pals.size());
+        Set<Integer> seen = new HashSet<>();
+        List<Item> chunk = new ArrayList<>(chunkSize);
+        for (int index = 0; index < pals.size(); index++) {
+            PalEntity pal = pals.get(index);
+            if (pal == null || pal.getId() == null) {
+                results.add(PalBatchResult.failed(index, null, "id obligatoire"));
+            } else if (!seen.add(pal.getId())) {
+                results.add(PalBatchResult.failed(index, pal.getId(), "id en double dans le lot : " + pal.getId()));
+            } else {
+                chunk.add(new Item(index, pal));
+                if (chunk.size() == chunkSize) {
+                    results.addAll(runChunk(chunk, mode));
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            results.addAll(runChunk(chunk, mode));
+        }
+        results.sort(Comparator.comparingInt(PalBatchResult::index));
+
+        long elapsedMs = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        LOGGER.info("Lot {} : {} pals en {} ms ({} pals/s)", mode, pals.size(), elapsedMs,
+                pals.size() * 1000L / elapsedMs);
+        return results;
+    }
+
+    private List<PalBatchResult> runChunk(List<Item> chunk, Mode mode) {
+        try {
+            return chunkTransaction.execute(status -> writeChunk(chunk, mode));
+        } catch (RuntimeException e) {
+            if (chunk.size() == 1) {
+                Item item = chunk.get(0);
+                return List.of(PalBatchResult.failed(item.index(), item.pal().getId(), rootMessage(e)));
+            }
+            LOGGER.warn("Lot de {} pals rejeté par la base, reprise élément par élément", chunk.size(), e);
+            List<PalBatchResult> results = new ArrayList<>(chunk.size());
+            for (Item item : chunk) {
+                results.addAll(runChunk(List.of(item), mode));
+            }
+            return results;
+        }
+    }
+
+    private List<PalBatchResult> writeChunk(List<Item> chunk, Mode mode) {
+        Map<Integer, PalEntity> existing = palStore.findByIdIn(chunk.stream().map(item -> item.pal().getId()).toList())
+                .stream()
+                .collect(Collectors.toMap(PalEntity::getId, Function.identity()));
+        List<PalBatchResult> results = new ArrayList<>(chunk.size());
+        Set<Integer> written = new HashSet<>();
+        for (Item item : chunk) {
+            PalEntity pal = item.pal();
+            PalEntity current = existing.get(pal.getId());
+            if (mode == Mode.CREATE) {
+                if (current != null) {
+                    results.add(PalBatchResult.failed(item.index(), pal.getId(), "Pal déjà existant : " + pal.getId()));
+                    continue;
+                }
+                palStore.insert(pal);
+                results.add(PalBatchResult.created(item.index(), pal.getId()));
+            } else {
+                if (current == null) {
+                    results.add(PalBatchResult.failed(item.index(), pal.getId(), "Pal non trouvé : " + pal.getId()));
+                    continue;
+                }
+                try {
+                    palStore.replace(current, pal);
+                } catch (PalVersionMismatchException e) {
+                    results.add(PalBatchResult.failed(item.index(), pal.getId(), e.getMessage()));
+                    continue;
+                }
+                results.add(PalBatchResult.updated(item.index(), pal.getId()));
+            }
+            written.add(pal.getId());
+        }
+        palStore.flush();
+        if (!written.isEmpty()) {
+            eventPublisher.publishEvent(new PalsChangedEvent(written));
+        }
+        return results;
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage() != null ? root.getMessage() : root.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.api_gestion_pals.service;
+
+import com.example.api_gestion_pals.model.PalEntity;
+import com.example.api_gestion_pals.model.PalSuitabilityEntity;
+import com.example.api_gestion_pals.model.PalTypeEntity;
+
+import java.util.*;
+
+/**
+ * Index inversé en bitmaps d'un instantané du catalogue : un bit par pal, à la position du pal dans
+ * l'instantané (trié par id, donc l'ordre des bits est celui des ids).
+ * <p>
+ * Un bitmap par type, et pour chaque aptitude un bitmap par niveau minimal ({@code niveau >= n}) : une
+ * combinaison de critères se résout par ET / OU / ET NON mot à mot, sans parcourir les pals.
+ * Les bitmaps sont denses ({@code long[]}) : les positions vont de 0 à la taille du catalogue, sans trou.
+ */
+final class PalBitmapIndex {
+
+    private final int size;
+    private final Map<String, long[]> byType;
+    // Pour une aptitude, l'élément i contient les pals de niveau >= i + 1
+    private final Map<String, long[][]> bySuitability;
+
+    private PalBitmapIndex(int size, Map<String, long[]> byType, Map<String, long[][]> bySuitability) {
+        this.size = size;
+        this.byType = byType;
+        this.bySuitability = bySuitability;
+    }
+
+    static PalBitmapIndex of(PalEntity[] sortedById) {
+        int words = words(sortedById.length);
+        Map<String, long[]> types = new HashMap<>();
+        Map<String, List<long[]>> suitabilities = new HashMap<>();
+        for (int position = 0; position < sortedById.length; position++) {
+            PalEntity pal = sortedById[position];
+            for (PalTypeEntity type : pal.getTypes()) {
+                if (type.getType() != null) {
+                    set(types.computeIfAbsent(normalize(type.getType()), k -> new long[words]), position);
+                }
+            }
+            for (PalSuitabilityEntity suitability : pal.getSuitabilities()) {
+                if (suitability.getType() == null || suitability.getLevel() == null) {
+                    continue;
+                }
+                List<long[]> levels = suitabilities.computeIfAbsent(normalize(suitability.getType()), k -> new ArrayList<>());
+                for (int level = 1; level <= suitability.getLevel(); level++) {
+                    if (levels.size() < level) {
+                        levels.add(new long[words]);
+                    }
+                    set(levels.get(level - 1), position);
+                }
+            }
+        }
+        Map<String, long[][]> suitabilityIndex = new HashMap<>();
+        suitabilities.forEach((type, levels) -> suitabilityIndex.put(type, levels.toArray(long[][]::new)));
+        return new PalBitmapIndex(sortedById.length, Map.copyOf(types), Map.copyOf(suitabilityIndex));
+    }
+
+    /**
+     * Tous les pals de l'instantané.
+     */
+    long[] all() {
+        long[] bits = new long[words(size)];
+        Arrays.fill(bits, -1L);
+        if (size % 64 != 0) {
+            bits[bits.length - 1] = (1L << (size % 64)) - 1;
+        }
+        return bits;
+    }
+
+    /**
+     * Pals ayant ce type (copie, modifiable par l'appelant).
+     */
+    long[] type(String type) {
+        long[] bits = byType.get(normalize(type));
+        return bits == null ? new long[words(size)] : bits.clone();
+    }
+
+    /**
+     * Pals ayant cette aptitude à un niveau au moins égal à {@code minLevel} (copie, modifiable par l'appelant).
+     */
+    long[] suitability(String type, int minLevel) {
+        long[][] levels = bySuitability.get(normalize(type));
+        int index = Math.max(minLevel, 1) - 1;
+        return levels == null || index >= levels.length ? new long[words(size)] : levels[index].clone();
+    }
+
+    // Les opérations écrivent dans leur premier argument et le renvoient
+
+    static long[] and(long[] target, long[] other) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] &= other[i];
+        }
+        return target;
+    }
+
+    static long[] or(long[] target, long[] other) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] |= other[i];
+        }
+        return target;
+    }
+
+    static long[] andNot(long[] target, long[] other) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] &= ~other[i];
+        }
+        return target;
+    }
+
+    static int cardinality(long[] bits) {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Positions des bits à 1, par ordre croissant (donc par id croissant).
+     */
+    static int[] positions(long[] bits) {
+        int[] positions = new int[cardinality(bits)];
+        int next = 0;
+        for (int i = 0; i < bits.length; i++) {
+            long word = bits[i];
+            while (word != 0) {
+                positions[next++] = i * 64 + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return positions;
+    }
+
+    private static void set(long[] bits, int position) {
+        bits[position >>> 6] |= 1L << position;
+    }
+
+    private static int words(int size) {
+        return (size + 63) >>> 6;
+    }
+
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,353 @@
+package com.example.api_gestion_pals.service;
+
+import com.example.api_gestion_pals.model.PalEntity;
+import com.example.api_gestion_pals.model.PalSkillEntity;
+import com.example.api_gestion_pals.model.PalStatEntity;
+import com.example.api_gestion_pals.model.PalSuitabilityEntity;
+import com.example.api_gestion_pals.model.PalTypeEntity;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Instantané immuable du catalogue servant toutes les lectures de {@link PalService}.
+ * <p>
+ * Les pals sont des copies détachées (listes non modifiables) rangées par id croissant ;
+ * les index (nom, bitmaps des types et aptitudes, classements) sont calculés une fois à la construction. Une écriture
+ * ne modifie jamais un instantané : {@link #with(PalEntity)} et {@link #without(int)} en
+ * produisent un nouveau, en reprenant les classements par aptitude et les index des noms et des compétences
+ * de l'instantané précédent.
+ */
+public final class PalCatalog {
+
+    private static final Comparator<PalEntity> BY_RARITY = descendingThenId(PalEntity::getRarity);
+    private static final Comparator<PalEntity> BY_PRICE = descendingThenId(PalEntity::getPrice);
+
+    private final long generation;
+    private final int[] ids;
+    private final PalEntity[] pals;
+    private final List<PalEntity> all;
+    private final Map<String, PalEntity> byName;
+    private final PalBitmapIndex bitmaps;
+    private final int[] byRarity;
+    private final int[] rarityRanks;
+    private final int[] byPrice;
+    private final int[] priceRanks;
+    private final PalSuitabilityRanking bestFor;
+    private final PalNameIndex names;
+    private final PalSkillIndex skills;
+
+    private PalCatalog(PalEntity[] sortedById, long generation) {
+        this(sortedById, generation, PalSuitabilityRanking.of(sortedById), PalNameIndex.of(sortedById),
+                PalSkillIndex.of(sortedById));
+    }
+
+    private PalCatalog(PalEntity[] sortedById, long generation, PalSuitabilityRanking bestFor, PalNameIndex names,
+                       PalSkillIndex skills) {
+        this.generation = generation;
+        this.bestFor = bestFor;
+        this.names = names;
+        this.skills = skills;
+        this.pals = sortedById;
+        this.all = List.of(sortedById);
+        this.ids = new int[sortedById.length];
+        Map<String, PalEntity> byNameMap = new HashMap<>();
+        for (int i = 0; i < sortedById.length; i++) {
+            PalEntity pal = sortedById[i];
+            ids[i] = pal.getId();
+            if (pal.getName() != null) {
+                byNameMap.putIfAbsent(pal.getName().toLowerCase(Locale.ROOT), pal);
+            }
+        }
+        this.byName = Map.copyOf(byNameMap);
+        this.bitmaps = PalBitmapIndex.of(sortedById);
+        this.byRarity = order(BY_RARITY);
+        this.rarityRanks = ranks(byRarity);
+        this.byPrice = order(BY_PRICE);
+        this.priceRanks = ranks(byPrice);
+    }
+
+    public static PalCatalog empty() {
+        return new PalCatalog(new PalEntity[0], 0);
+    }
+
+    /**
+     * Construit un instantané à partir d'entités (gérées ou non) : elles sont copiées, il faut donc
+     * l'appeler tant que leurs collections paresseuses sont encore chargeables.
+     */
+    public static PalCatalog of(Collection<PalEntity> entities) {
+        return of(entities, 1);
+    }
+
+    // Rechargement complet : la génération continue celle de l'instantané remplacé
+    static PalCatalog of(Collection<PalEntity> entities, long generation) {
+        PalEntity[] copies = entities.stream()
+                .map(PalCatalog::copyOf)
+                .sorted(Comparator.comparing(PalEntity::getId))
+                .toArray(PalEntity[]::new);
+        return new PalCatalog(copies, generation);
+    }
+
+    /**
+     * Nouvel instantané où le pal (copié) remplace celui de même id, ou est ajouté.
+     */
+    public PalCatalog with(PalEntity entity) {
+        PalEntity copy = copyOf(entity);
+        int position = Arrays.binarySearch(ids, copy.getId());
+        PalEntity[] next;
+        PalEntity previous = null;
+        if (position >= 0) {
+            previous = pals[position];
+            next = pals.clone();
+            next[position] = copy;
+        } else {
+            int insertion = -position - 1;
+            next = new PalEntity[pals.length + 1];
+            System.arraycopy(pals, 0, next, 0, insertion);
+            next[insertion] = copy;
+            System.arraycopy(pals, insertion, next, insertion + 1, pals.length - insertion);
+        }
+        return new PalCatalog(next, generation + 1, bestFor.with(previous, copy, this::palById),
+                names.with(previous, copy), skills.with(previous, copy));
+    }
+
+    /**
+     * Nouvel instantané sans le pal d'id donné (identique si absent, génération exceptée).
+     */
+    public PalCatalog without(int id) {
+        int position = Arrays.binarySearch(ids, id);
+        if (position < 0) {
+            return new PalCatalog(pals, generation + 1, bestFor, names, skills);
+        }
+        PalEntity[] next = new PalEntity[pals.length - 1];
+        System.arraycopy(pals, 0, next, 0, position);
+        System.arraycopy(pals, position + 1, next, position, pals.length - position - 1);
+        PalEntity removed = pals[position];
+        return new PalCatalog(next, generation + 1, bestFor.without(removed), names.without(removed),
+                skills.without(removed));
+    }
+
+    /**
+     * Nouvel instantané appliquant plusieurs changements à la fois (un seul recalcul des index) :
+     * les pals de {@code upserts} (copiés) remplacent ou s'ajoutent, ceux de {@code removedIds} disparaissent.
+     */
+    public PalCatalog withChanges(Collection<PalEntity> upserts, Collection<Integer> removedIds) {
+        SortedMap<Integer, PalEntity> next = new TreeMap<>();
+        for (PalEntity pal : pals) {
+            next.put(pal.getId(), pal);
+        }
+        removedIds.forEach(next::remove);
+        upserts.forEach(entity -> next.put(entity.getId(), copyOf(entity)));
+        return new PalCatalog(next.values().toArray(PalEntity[]::new), generation + 1);
+    }
+
+    public long generation() {
+        return generation;
+    }
+
+    public int size() {
+        return pals.length;
+    }
+
+    public Optional<PalEntity> findById(int id) {
+        int position = Arrays.binarySearch(ids, id);
+        return position >= 0 ? Optional.of(pals[position]) : Optional.empty();
+    }
+
+    public Optional<PalEntity> findByName(String name) {
+        return Optional.ofNullable(byName.get(name.toLowerCase(Locale.ROOT)));
+    }
+
+    public List<PalEntity> findByType(String type) {
+        int[] positions = PalBitmapIndex.positions(bitmaps.type(type));
+        return select(positions, 0, positions.length);
+    }
+
+    /**
+     * Pals correspondant au filtre, par id croissant.
+     */
+    public List<PalEntity> findMatching(PalTraitFilter filter) {
+        int[] positions = PalBitmapIndex.positions(matching(filter));
+        return select(positions, 0, positions.length);
+    }
+
+    /**
+     * Nombre de pals correspondant au filtre, sans construire la liste.
+     */
+    public int countMatching(PalTraitFilter filter) {
+        return PalBitmapIndex.cardinality(matching(filter));
+    }
+
+    public List<PalEntity> findAll() {
+        return all;
+    }
+
+    public List<PalEntity> sortedByRarity(int limit, int offset, Integer after) {
+        return page(byRarity, rarityRanks, limit, offset, after);
+    }
+
+    public List<PalEntity> sortedByPrice(int limit, int offset, Integer after) {
+        return page(byPrice, priceRanks, limit, offset, after);
+    }
+
+    private List<PalEntity> page(int[] order, int[] ranks, int limit, int offset, Integer after) {
+        int from;
+        if (after != null) {
+            // Même sémantique que la pagination par clé de PalDAO : on reprend juste après ce pal
+            int position = Arrays.binarySearch(ids, after);
+            if (position < 0) {
+                return List.of();
+            }
+            from = ranks[position] + 1;
+        } else {
+            from = Math.max(offset, 0);
+        }
+        int to = (int) Math.min(order.length, (long) from + Math.max(limit, 0));
+        return from >= to ? List.of() : select(order, from, to);
+    }
+
+    /**
+     * Les {@code limit} meilleurs pals pour une aptitude (kindling, mining...), du meilleur au moins bon.
+     */
+    public List<PalEntity> bestFor(String suitability, int limit) {
+        return Arrays.stream(bestFor.top(suitability, limit)).mapToObj(this::palById).toList();
+    }
+
+    /**
+     * Autocomplétion sur le nom et la clé, tolérante aux fautes de frappe.
+     */
+    public List<PalSuggestion> suggest(String query, int limit) {
+        return names.suggest(query, limit, this::palById);
+    }
+
+    /**
+     * Recherche plein texte dans les compétences (nom, type, description), résultats groupés par pal.
+     */
+    public List<PalSkillSearchResult> searchSkills(String query, int limit) {
+        return skills.search(query, limit, this::palById);
+    }
+
+    private PalEntity palById(int id) {
+        return pals[Arrays.binarySearch(ids, id)];
+    }
+
+    private long[] matching(PalTraitFilter filter) {
+        long[] bits = bitmaps.all();
+        if (!filter.types().isEmpty()) {
+            long[] types = bitmaps.type(filter.types().get(0));
+            for (String type : filter.types().subList(1, filter.types().size())) {
+                if (filter.allTypes()) {
+                    PalBitmapIndex.and(types, bitmaps.type(type));
+                } else {
+                    PalBitmapIndex.or(types, bitmaps.type(type));
+                }
+            }
+            PalBitmapIndex.and(bits, types);
+        }
+        for (String type : filter.excludedTypes()) {
+            PalBitmapIndex.andNot(bits, bitmaps.type(type));
+        }
+        if (filter.suitability() != null) {
+            PalBitmapIndex.and(bits, bitmaps.suitability(filter.suitability(), filter.minSuitabilityLevel()));
+        }
+        return bits;
+    }
+
+    private List<PalEntity> select(int[] positions, int from, int to) {
+        PalEntity[] selected = new PalEntity[to - from];
+        for (int i = from; i < to; i++) {
+            selected[i - from] = pals[positions[i]];
+        }
+        return List.of(selected);
+    }
+
+    private int[] order(Comparator<PalEntity> comparator) {
+        Integer[] positions = new Integer[pals.length];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = i;
+        }
+        Arrays.sort(positions, (a, b) -> comparator.compare(pals[a], pals[b]));
+        return Arrays.stream(positions).mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int[] ranks(int[] order) {
+        int[] ranks = new int[order.length];
+        for (int rank = 0; rank < order.length; rank++) {
+            ranks[order[rank]] = rank;
+        }
+        return ranks;
+    }
+
+    // Ordre identique à « order by x desc, id asc » sous H2 (valeurs nulles en dernier)
+    private static Comparator<PalEntity> descendingThenId(Function<PalEntity, Integer> key) {
+        return Comparator.comparing(key, Comparator.nullsFirst(Comparator.<Integer>naturalOrder()))
+                .reversed()
+                .thenComparing(PalEntity::getId);
+    }
+
+    static PalEntity copyOf(PalEntity entity) {
+        PalEntity copy = new PalEntity();
+        copy.setId(entity.getId());
+        copy.setPalKey(entity.getPalKey());
+        copy.setName(entity.getName());
+        copy.setWiki(entity.getWiki());
+        copy.setRarity(entity.getRarity());
+        copy.setPrice(entity.getPrice());
+        copy.setSize(entity.getSize());
+        copy.setVersion(entity.getVersion());
+        copy.setTypes(entity.getTypes().stream().map(type -> copyOf(type, copy)).toList());
+        copy.setSkills(entity.getSkills().stream().map(skill -> copyOf(skill, copy)).toList());
+        copy.setSuitabilities(entity.getSuitabilities().stream().map(suitability -> copyOf(suitability, copy)).toList());
+        if (entity.getStats() != null) {
+            copy.setStats(copyOf(entity.getStats(), copy));
+        }
+        return copy;
+    }
+
+    private static PalTypeEntity copyOf(PalTypeEntity type, PalEntity pal) {
+        PalTypeEntity copy = new PalTypeEntity();
+        copy.setId(type.getId());
+        copy.setType(type.getType());
+        copy.setPal(pal);
+        return copy;
+    }
+
+    private static PalSkillEntity copyOf(PalSkillEntity skill, PalEntity pal) {
+        PalSkillEntity copy = new PalSkillEntity();
+        copy.setId(skill.getId());
+        copy.setLevel(skill.getLevel());
+        copy.setName(skill.getName());
+        copy.setType(skill.getType());
+        copy.setCooldown(skill.getCooldown());
+        copy.setPower(skill.getPower());
+        copy.setDescription(skill.getDescription());
+        copy.setPal(pal);
+        return copy;
+    }
+
+    private static PalSuitabilityEntity copyOf(PalSuitabilityEntity suitability, PalEntity pal) {
+        PalSuitabilityEntity copy = new PalSuitabilityEntity();
+        copy.setId(suitability.getId());
+        copy.setType(suitability.getType());
+        copy.setLevel(suitability.getLevel());
+        copy.setPal(pal);
+        return copy;
+    }
+
+    private static PalStatEntity copyOf(PalStatEntity stats, PalEntity pal) {
+        PalStatEntity copy = new PalStatEntity();
+        copy.setId(stats.getId());
+        copy.setHp(stats.getHp());
+        copy.setMeleeAttack(stats.getMeleeAttack());
+        copy.setRangedAttack(stats.getRangedAttack());
+        copy.setDefense(stats.getDefense());
+        copy.setRideSpeed(stats.getRideSpeed());
+        copy.setRunSpeed(stats.getRunSpeed());
+        copy.setWalkSpeed(stats.getWalkSpeed());
+        copy.setStamina(stats.getStamina());
+        copy.setSupport(stats.getSupport());
+        copy.setFood(stats.getFood());
+        copy.setPal(pal);
+        return copy;
+    }
+}
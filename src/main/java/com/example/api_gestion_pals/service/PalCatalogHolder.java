@@ -0,0 +1,143 @@
+package com.example.api_gestion_pals.service;
+
+import com.example.api_gestion_pals.model.PalEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Détient l'instantané courant du catalogue et le remplace (copy-on-write) après chaque écriture commitée.
+ * Les lectures ne prennent aucun verrou : elles lisent la référence volatile.
+ * <p>
+ * Le catalogue tient lieu de cache des lectures par id et par nom : il contient tout le jeu de données, et
+ * chaque écriture ne remplace que le pal concerné. Ses statistiques reprennent celles d'un cache : recherches
+ * trouvées ou non, et pals remplacés ou retirés par les écritures et les rechargements. Ce ne sont pas des
+ * évictions : rien n'est jamais retiré faute de place.
+ */
+@Component
+public class PalCatalogHolder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PalCatalogHolder.class);
+
+    private final PalStore palStore;
+    private final TransactionTemplate loadTransaction;
+    private final TransactionTemplate refreshTransaction;
+    // Pas de synchronized : la relecture en base se fait sous le verrou, et un thread virtuel bloqué
+    // dans un bloc synchronized immobilise son thread porteur (Java 21)
+    private final ReentrantLock writeLock = new ReentrantLock();
+    // La génération repart de zéro à chaque démarrage : l'instant de démarrage distingue les instances
+    private final String instanceTag = Long.toString(System.currentTimeMillis(), 36);
+
+    private volatile PalCatalog current = PalCatalog.empty();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder replacements = new LongAdder();
+
+    public PalCatalogHolder(PalStore palStore, PlatformTransactionManager transactionManager) {
+        this.palStore = palStore;
+        this.loadTransaction = new TransactionTemplate(transactionManager);
+        this.loadTransaction.setReadOnly(true);
+        // Après un commit, les ressources de la transaction terminée sont encore liées au thread :
+        // la relecture doit se faire dans une transaction neuve
+        this.refreshTransaction = new TransactionTemplate(transactionManager);
+        this.refreshTransaction.setReadOnly(true);
+        this.refreshTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public PalCatalog current() {
+        return current;
+    }
+
+    // Recherche par id ou par nom servie par le catalogue
+    public void recordLookup(boolean found) {
+        (found ? hits : misses).increment();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long replacementCount() {
+        return replacements.sum();
+    }
+
+    /**
+     * Identifie l'instantané courant : change à chaque écriture commitée et à chaque redémarrage.
+     */
+    public String tag() {
+        return instanceTag + "-" + current.generation();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    /**
+     * Reconstruit tout l'instantané depuis la base (dans la transaction courante s'il y en a une).
+     */
+    public PalCatalog reload() {
+        writeLock.lock();
+        try {
+            // Génération suivante, pas 1 : l'étiquette d'un rechargement ne doit pas reprendre une étiquette déjà servie
+            long generation = current.generation() + 1;
+            PalCatalog catalog = loadTransaction.execute(status -> PalCatalog.of(palStore.findAll(), generation));
+            replacements.add(current.size());
+            current = catalog;
+            LOGGER.info("Catalogue chargé en mémoire : {} pals", catalog.size());
+            return catalog;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPalChanged(PalChangedEvent event) {
+        writeLock.lock();
+        try {
+            PalCatalog catalog = current;
+            if (catalog.findById(event.palId()).isPresent()) {
+                replacements.increment();
+            }
+            current = refreshTransaction.execute(status -> palStore.findById(event.palId())
+                    .map(catalog::with)
+                    .orElseGet(() -> catalog.without(event.palId())));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPalsChanged(PalsChangedEvent event) {
+        writeLock.lock();
+        try {
+            PalCatalog catalog = current;
+            replacements.add(event.palIds().stream().filter(id -> catalog.findById(id).isPresent()).count());
+            current = refreshTransaction.execute(status -> {
+                List<PalEntity> found = palStore.findByIdIn(event.palIds());
+                Set<Integer> removed = new HashSet<>(event.palIds());
+                found.forEach(pal -> removed.remove(pal.getId()));
+                return catalog.withChanges(found, removed);
+            });
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
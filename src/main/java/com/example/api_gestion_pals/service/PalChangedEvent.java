@@ -0,0 +1,7 @@
+package com.example.api_gestion_pals.service;
+
+/**
+ * Publié par {@link PalService} à chaque écriture touchant un pal (ou ses enfants).
+ */
+public record PalChangedEvent(int palId) {
+}
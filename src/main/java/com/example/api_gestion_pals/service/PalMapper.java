@@ -0,0 +1,96 @@
+package com.example.api_gestion_pals.service;
+
+import com.example.api_gestion_pals.model.*;
+import com.example.api_gestion_pals.service.entity.Attack;
+import com.example.api_gestion_pals.service.entity.Pal;
+import com.example.api_gestion_pals.service.entity.Skill;
+import com.example.api_gestion_pals.service.entity.Speed;
+import com.example.api_gestion_pals.service.entity.Stat;
+import com.example.api_gestion_pals.service.entity.Suitability;
+
+/**
+ * Conversion d'un {@link Pal} lu dans pals.json en {@link PalEntity} détaché, enfants et stats rattachés.
+ */
+public final class PalMapper {
+
+    private PalMapper() {
+    }
+
+    public static PalEntity toEntity(Pal pal) {
+        PalEntity entity = new PalEntity();
+        entity.setId(pal.id());
+        entity.setPalKey(pal.key());
+        entity.setName(pal.name());
+        entity.setWiki(pal.wiki());
+        entity.setRarity(pal.rarity());
+        entity.setPrice(pal.price());
+        entity.setSize(pal.size());
+
+        // types
+        if (pal.types() != null) {
+            for (String t : pal.types()) {
+                PalTypeEntity typeEntity = new PalTypeEntity();
+                typeEntity.setType(t);
+                typeEntity.setPal(entity);
+                entity.getTypes().add(typeEntity);
+            }
+        }
+
+        // suitabilities
+        if (pal.suitability() != null) {
+            for (Suitability s : pal.suitability()) {
+                PalSuitabilityEntity se = new PalSuitabilityEntity();
+                se.setType(s.type());
+                se.setLevel(s.level());
+                se.setPal(entity);
+                entity.getSuitabilities().add(se);
+            }
+        }
+
+        // skills
+        if (pal.skills() != null) {
+            for (Skill s : pal.skills()) {
+                PalSkillEntity skillEntity = new PalSkillEntity();
+                skillEntity.setLevel(s.level());
+                skillEntity.setName(s.name());
+                skillEntity.setType(s.type());
+                skillEntity.setCooldown(s.cooldown());
+                skillEntity.setPower(s.power());
+                skillEntity.setDescription(s.description());
+                skillEntity.setPal(entity);
+                entity.getSkills().add(skillEntity);
+            }
+        }
+
+        // stats
+        if (pal.stats() != null) {
+            PalStatEntity statEntity = getPalStatEntity(pal, entity);
+            entity.setStats(statEntity);
+        }
+
+        return entity;
+    }
+
+    private static PalStatEntity getPalStatEntity(Pal pal, PalEntity entity) {
+        Stat st = pal.stats();
+        PalStatEntity statEntity = new PalStatEntity();
+        statEntity.setHp(st.hp());
+        Attack attack = st.attack();
+        if (attack != null) {
+            statEntity.setMeleeAttack(attack.melee());
+            statEntity.setRangedAttack(attack.ranged());
+        }
+        statEntity.setDefense(st.defense());
+        Speed speed = st.speed();
+        if (speed != null) {
+            statEntity.setRideSpeed(speed.ride());
+            statEntity.setRunSpeed(speed.run());
+            statEntity.setWalkSpeed(speed.walk());
+        }
+        statEntity.setStamina(st.stamina());
+        statEntity.setSupport(st.support());
+        statEntity.setFood(st.food());
+        statEntity.setPal(entity);
+        return statEntity;
+    }
+}
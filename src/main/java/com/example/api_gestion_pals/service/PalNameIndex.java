@@ -0,0 +1,273 @@
+package com.example.api_gestion_pals.service;
+
+import com.example.api_gestion_pals.model.PalEntity;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.function.IntFunction;
+
+/**
+ * Index des noms et clés de pals pour l'autocomplétion, d'un instantané du catalogue.
+ * <ul>
+ *     <li>Préfixes : termes normalisés (nom complet, chaque mot du nom, clé) triés, avec l'id du pal ;
+ *     tous les termes commençant par la saisie forment une plage contiguë trouvée par dichotomie.</li>
+ *     <li>Fautes de frappe : listes d'ids par trigramme des noms ; les pals partageant des trigrammes avec la
+ *     saisie sont retenus si la distance d'édition avec le début d'un des termes du nom reste faible.</li>
+ * </ul>
+ * Comme {@link PalSuitabilityRanking}, l'index est en ids : {@link #with} et {@link #without} ne retouchent
+ * que les termes et trigrammes du pal modifié.
+ */
+final class PalNameIndex {
+
+    private static final String[] NO_TERMS = new String[0];
+    private static final int[] NO_IDS = new int[0];
+
+    // Triés par terme puis par id
+    private final String[] terms;
+    private final int[] termIds;
+    private final Map<String, int[]> idsByTrigram;
+
+    private PalNameIndex(String[] terms, int[] termIds, Map<String, int[]> idsByTrigram) {
+        this.terms = terms;
+        this.termIds = termIds;
+        this.idsByTrigram = idsByTrigram;
+    }
+
+    static PalNameIndex of(PalEntity[] pals) {
+        return new PalNameIndex(NO_TERMS, NO_IDS, Map.of()).withChanges(List.of(), Arrays.asList(pals));
+    }
+
+    PalNameIndex with(PalEntity previous, PalEntity next) {
+        return withChanges(previous == null ? List.of() : List.of(previous), List.of(next));
+    }
+
+    PalNameIndex without(PalEntity removed) {
+        return withChanges(List.of(removed), List.of());
+    }
+
+    /**
+     * Suggestions pour la saisie {@code query}, de la plus pertinente à la moins pertinente :
+     * nom ou clé identique, nom ou clé commençant par la saisie, un mot du nom commençant par la saisie,
+     * puis correspondances approchées par distance croissante. {@code lookup} donne les pals par id.
+     */
+    List<PalSuggestion> suggest(String query, int limit, IntFunction<PalEntity> lookup) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Map<Integer, PalSuggestion> found = new HashMap<>();
+        int from = lowerBound(normalized);
+        for (int i = from; i < terms.length && terms[i].startsWith(normalized); i++) {
+            PalEntity pal = lookup.apply(termIds[i]);
+            found.merge(pal.getId(), new PalSuggestion(pal.getId(), pal.getName(), pal.getPalKey(),
+                    exactOrPrefix(pal, normalized), 0), PalNameIndex::best);
+        }
+        if (found.size() < limit) {
+            fuzzy(normalized, lookup).forEach(suggestion -> found.putIfAbsent(suggestion.id(), suggestion));
+        }
+        return found.values().stream()
+                .sorted(Comparator.comparing(PalSuggestion::match)
+                        .thenComparingInt(PalSuggestion::distance)
+                        .thenComparing(suggestion -> suggestion.name() == null ? Integer.MAX_VALUE : suggestion.name().length())
+                        .thenComparingInt(PalSuggestion::id))
+                .limit(limit)
+                .toList();
+    }
+
+    private List<PalSuggestion> fuzzy(String query, IntFunction<PalEntity> lookup) {
+        int maxDistance = query.length() <= 2 ? 0 : query.length() <= 5 ? 1 : 2;
+        if (maxDistance == 0) {
+            return List.of();
+        }
+        Set<Integer> candidates = new HashSet<>();
+        for (String trigram : trigrams(query)) {
+            for (int id : idsByTrigram.getOrDefault(trigram, NO_IDS)) {
+                candidates.add(id);
+            }
+        }
+        List<PalSuggestion> suggestions = new ArrayList<>();
+        for (int id : candidates) {
+            PalEntity pal = lookup.apply(id);
+            int distance = Integer.MAX_VALUE;
+            for (String term : nameTerms(pal)) {
+                distance = Math.min(distance, prefixDistance(query, term));
+            }
+            if (distance <= maxDistance) {
+                suggestions.add(new PalSuggestion(id, pal.getName(), pal.getPalKey(), PalSuggestion.Match.FUZZY, distance));
+            }
+        }
+        return suggestions;
+    }
+
+    private static PalSuggestion.Match exactOrPrefix(PalEntity pal, String query) {
+        String name = pal.getName() == null ? "" : normalize(pal.getName());
+        String key = pal.getPalKey() == null ? "" : normalize(pal.getPalKey());
+        if (name.equals(query) || key.equals(query)) {
+            return PalSuggestion.Match.EXACT;
+        }
+        if (name.startsWith(query) || key.startsWith(query)) {
+            return PalSuggestion.Match.PREFIX;
+        }
+        return PalSuggestion.Match.WORD_PREFIX;
+    }
+
+    private static PalSuggestion best(PalSuggestion a, PalSuggestion b) {
+        return a.match().compareTo(b.match()) <= 0 ? a : b;
+    }
+
+    private PalNameIndex withChanges(Collection<PalEntity> removed, Collection<PalEntity> added) {
+        Set<Integer> removedIds = new HashSet<>();
+        removed.forEach(pal -> removedIds.add(pal.getId()));
+
+        // Termes conservés (déjà triés) fusionnés avec ceux des pals ajoutés : pas de tri de tout l'index
+        List<Map.Entry<String, Integer>> addedTerms = new ArrayList<>();
+        for (PalEntity pal : added) {
+            terms(pal).forEach(term -> addedTerms.add(Map.entry(term, pal.getId())));
+        }
+        addedTerms.sort(Map.Entry.<String, Integer>comparingByKey().thenComparing(Map.Entry.comparingByValue()));
+        String[] nextTerms = new String[terms.length + addedTerms.size()];
+        int[] nextIds = new int[nextTerms.length];
+        int size = 0;
+        int kept = 0;
+        for (Map.Entry<String, Integer> entry : addedTerms) {
+            for (; kept < terms.length && compare(terms[kept], termIds[kept], entry.getKey(), entry.getValue()) < 0; kept++) {
+                if (!removedIds.contains(termIds[kept])) {
+                    nextTerms[size] = terms[kept];
+                    nextIds[size++] = termIds[kept];
+                }
+            }
+            nextTerms[size] = entry.getKey();
+            nextIds[size++] = entry.getValue();
+        }
+        for (; kept < terms.length; kept++) {
+            if (!removedIds.contains(termIds[kept])) {
+                nextTerms[size] = terms[kept];
+                nextIds[size++] = termIds[kept];
+            }
+        }
+        nextTerms = Arrays.copyOf(nextTerms, size);
+        nextIds = Arrays.copyOf(nextIds, size);
+
+        // Seuls les trigrammes des pals retirés ou ajoutés sont recopiés
+        Map<String, int[]> trigrams = new HashMap<>(idsByTrigram);
+        for (PalEntity pal : removed) {
+            for (String trigram : trigrams(pal)) {
+                int[] ids = trigrams.get(trigram);
+                if (ids != null) {
+                    int[] remaining = Arrays.stream(ids).filter(id -> id != pal.getId()).toArray();
+                    if (remaining.length == 0) {
+                        trigrams.remove(trigram);
+                    } else {
+                        trigrams.put(trigram, remaining);
+                    }
+                }
+            }
+        }
+        Map<String, List<Integer>> additions = new HashMap<>();
+        for (PalEntity pal : added) {
+            trigrams(pal).forEach(trigram -> additions.computeIfAbsent(trigram, k -> new ArrayList<>()).add(pal.getId()));
+        }
+        additions.forEach((trigram, ids) -> {
+            int[] current = trigrams.getOrDefault(trigram, NO_IDS);
+            int[] merged = Arrays.copyOf(current, current.length + ids.size());
+            for (int i = 0; i < ids.size(); i++) {
+                merged[current.length + i] = ids.get(i);
+            }
+            Arrays.sort(merged);
+            trigrams.put(trigram, merged);
+        });
+        return new PalNameIndex(nextTerms, nextIds, Map.copyOf(trigrams));
+    }
+
+    private static int compare(String term, int id, String otherTerm, int otherId) {
+        int byTerm = term.compareTo(otherTerm);
+        return byTerm != 0 ? byTerm : Integer.compare(id, otherId);
+    }
+
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = terms.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (terms[middle].compareTo(prefix) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // Termes du nom et clé, normalisés
+    private static Set<String> terms(PalEntity pal) {
+        Set<String> terms = nameTerms(pal);
+        if (pal.getPalKey() != null && !pal.getPalKey().isBlank()) {
+            terms.add(normalize(pal.getPalKey()));
+        }
+        return terms;
+    }
+
+    // Nom complet et chaque mot du nom (« Cryst » trouve toutes les variantes)
+    private static Set<String> nameTerms(PalEntity pal) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (pal.getName() != null) {
+            String name = normalize(pal.getName());
+            terms.add(name);
+            terms.addAll(Arrays.asList(name.split(" ")));
+        }
+        terms.remove("");
+        return terms;
+    }
+
+    // Les clés (« 001 », « 002 »...) sont toutes à une faute les unes des autres : seuls les noms sont approchés
+    private static Set<String> trigrams(PalEntity pal) {
+        Set<String> trigrams = new HashSet<>();
+        nameTerms(pal).forEach(term -> trigrams.addAll(trigrams(term)));
+        return trigrams;
+    }
+
+    // Le terme est préfixé de deux espaces : le début du mot compte plus que le reste, comme pour une saisie
+    private static Set<String> trigrams(String term) {
+        String padded = "  " + term;
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    /**
+     * Distance d'édition entre la saisie et le préfixe de {@code term} qui lui ressemble le plus
+     * (la saisie est un début de mot : « lambal » est à 0 de « lamball », « lanbal » à 1).
+     */
+    static int prefixDistance(String query, String term) {
+        int[] previous = new int[term.length() + 1];
+        int[] current = new int[term.length() + 1];
+        for (int j = 0; j <= term.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= query.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= term.length(); j++) {
+                int substitution = previous[j - 1] + (query.charAt(i - 1) == term.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        int best = Integer.MAX_VALUE;
+        for (int distance : previous) {
+            best = Math.min(best, distance);
+        }
+        return best;
+    }
+
+    static String normalize(String value) {
+        return Normalizer.normalize(value, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT)
+                .trim()
+                .replaceAll("\\s+", " ");
+    }
+}
@@ -1,246 +1,258 @@
 package com.example.api_gestion_pals.service;
 
-import com.example.api_gestion_pals.DAO.PalDAO;
+import com.example.api_gestion_pals.DAO.PalSearchCriteria;
+import com.example.api_gestion_pals.DAO.PalSpecifications;
 import com.example.api_gestion_pals.model.PalEntity;
 import com.example.api_gestion_pals.model.PalSkillEntity;
-import com.example.api_gestion_pals.model.PalStatEntity;
 import com.example.api_gestion_pals.model.PalSuitabilityEntity;
 import com.example.api_gestion_pals.model.PalTypeEntity;
-import jakarta.persistence.EntityManager;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
 import org.hibernate.Hibernate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 
 @Service
 @Transactional
+@Timed(value = "pals.service", description = "Durée des appels aux services de pals (tags class et method)")
 public class PalService {
 
-    private final PalDAO palDAO;
-    private final EntityManager entityManager;
+    private final PalStore palStore;
+    private final PalCatalogHolder palCatalogHolder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
 
-    public PalService(PalDAO palDAO, EntityManager entityManager) {
-        this.palDAO = palDAO;
-        this.entityManager = entityManager;
+    public PalService(PalStore palStore, PalCatalogHolder palCatalogHolder,
+                      ApplicationEventPublisher eventPublisher, ObjectMapper objectMapper) {
+        this.palStore = palStore;
+        this.palCatalogHolder = palCatalogHolder;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
     }
 
+    // Lectures servies par l'instantané en mémoire : pas de transaction, pas d'accès à la base
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Optional<PalEntity> getById(int id) {
-        return palDAO.findById(id);
+        Optional<PalEntity> pal = palCatalogHolder.current().findById(id);
+        palCatalogHolder.recordLookup(pal.isPresent());
+        return pal;
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Optional<PalEntity> getByName(String name) {
-        return palDAO.findByNameIgnoreCase(name);
+        Optional<PalEntity> pal = palCatalogHolder.current().findByName(name);
+        palCatalogHolder.recordLookup(pal.isPresent());
+        return pal;
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<PalEntity> getByType(String type) {
-        return palDAO.findByTypes_TypeIgnoreCase(type);
+        return palCatalogHolder.current().findByType(type);
     }
 
+    // Combinaisons de types et d'aptitudes résolues par les bitmaps du catalogue, sans requête
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<PalEntity> getByTraits(PalTraitFilter filter) {
+        return palCatalogHolder.current().findMatching(filter);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public int countByTraits(PalTraitFilter filter) {
+        return palCatalogHolder.current().countMatching(filter);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<PalSuggestion> suggest(String query, int limit) {
+        return palCatalogHolder.current().suggest(query, limit);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<PalSkillSearchResult> searchSkills(String query, int limit) {
+        return palCatalogHolder.current().searchSkills(query, limit);
+    }
+
+    // Classement précalculé par aptitude, mis à jour à chaque écriture du catalogue
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<PalEntity> getBestFor(String suitability, int limit) {
+        return palCatalogHolder.current().bestFor(suitability, limit);
+    }
+
+    /**
+     * Étiquette de l'instantané courant, pour l'ETag des réponses servies par le catalogue.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public String getCatalogTag() {
+        return palCatalogHolder.tag();
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<PalEntity> getAll() {
-        return palDAO.findAll();
+        return palCatalogHolder.current().findAll();
+    }
+
+    // Pages lues directement en base, par clé sur l'id, pour les clients qui parcourent tout le catalogue
+    @Transactional(readOnly = true)
+    public List<PalEntity> getPage(Integer after, int size) {
+        return palStore.findPage(after, size);
+    }
+
+    /**
+     * Recherche multicritère en base (voir {@link PalSpecifications}) : une requête pour la page, une pour le total.
+     */
+    @Transactional(readOnly = true)
+    public Page<PalEntity> search(PalSearchCriteria criteria, Pageable pageable) {
+        return palStore.search(criteria, pageable);
+    }
+
+    /**
+     * Parcourt tous les pals par tranches de {@code chunkSize} (pagination par clé) : la mémoire consommée
+     * ne dépend pas de la taille du catalogue.
+     */
+    @Transactional(readOnly = true)
+    public void forEachPal(int chunkSize, Consumer<PalEntity> consumer) {
+        palStore.forEach(chunkSize, consumer);
     }
 
     public PalEntity save(PalEntity pal) {
         // Vérifier si c'est une création ou une mise à jour
-        boolean isNew = pal.getId() == null || !palDAO.existsById(pal.getId());
-        
-        if (isNew) {
-            // Pour une nouvelle entité, gérer manuellement la persistance comme dans PalDataLoader
-            PalStatEntity stats = pal.getStats();
-            
-            // Retirer temporairement les stats
-            pal.setStats(null);
-            
-            // Réinitialiser les IDs des entités enfants
-            if (pal.getTypes() != null) {
-                pal.getTypes().forEach(type -> {
-                    type.setId(null);
-                    type.setPal(pal);
-                });
-            }
-            if (pal.getSkills() != null) {
-                pal.getSkills().forEach(skill -> {
-                    skill.setId(null);
-                    skill.setPal(pal);
-                });
-            }
-            if (pal.getSuitabilities() != null) {
-                pal.getSuitabilities().forEach(suitability -> {
-                    suitability.setId(null);
-                    suitability.setPal(pal);
-                });
-            }
-            
-            // Sauvegarder le PalEntity (les relations @OneToMany seront sauvegardées en cascade)
-            PalEntity savedPal = palDAO.save(pal);
-            entityManager.flush();
-            
-            // Recharger l'entité gérée depuis la base
-            PalEntity managedPal = entityManager.find(PalEntity.class, savedPal.getId());
-            
-            // Sauvegarder manuellement le PalStatEntity
-            if (stats != null) {
-                stats.setId(null);
-                stats.setPal(managedPal);
-                entityManager.persist(stats);
-                managedPal.setStats(stats);
-            }
-            
-            return managedPal;
-        } else {
-            // Pour une mise à jour, charger l'entité existante et mettre à jour
-            PalEntity existing = palDAO.findById(pal.getId())
-                    .orElseThrow(() -> new IllegalArgumentException("Pal non trouvé : " + pal.getId()));
-            
-            // Mettre à jour les champs de base
-            existing.setPalKey(pal.getPalKey());
-            existing.setName(pal.getName());
-            existing.setWiki(pal.getWiki());
-            existing.setRarity(pal.getRarity());
-            existing.setPrice(pal.getPrice());
-            existing.setSize(pal.getSize());
-            
-            // Mettre à jour les types (remplacer la liste)
-            if (pal.getTypes() != null) {
-                existing.getTypes().clear();
-                pal.getTypes().forEach(type -> {
-                    type.setId(null);
-                    type.setPal(existing);
-                    existing.getTypes().add(type);
-                });
-            }
-            
-            // Mettre à jour les skills (remplacer la liste)
-            if (pal.getSkills() != null) {
-                existing.getSkills().clear();
-                pal.getSkills().forEach(skill -> {
-                    skill.setId(null);
-                    skill.setPal(existing);
-                    existing.getSkills().add(skill);
-                });
-            }
-            
-            // Mettre à jour les suitabilities (remplacer la liste)
-            if (pal.getSuitabilities() != null) {
-                existing.getSuitabilities().clear();
-                pal.getSuitabilities().forEach(suitability -> {
-                    suitability.setId(null);
-                    suitability.setPal(existing);
-                    existing.getSuitabilities().add(suitability);
-                });
-            }
-            
-            // Mettre à jour les stats
-            if (pal.getStats() != null) {
-                if (existing.getStats() != null) {
-                    // Mettre à jour les stats existantes
-                    PalStatEntity stats = existing.getStats();
-                    stats.setHp(pal.getStats().getHp());
-                    stats.setMeleeAttack(pal.getStats().getMeleeAttack());
-                    stats.setRangedAttack(pal.getStats().getRangedAttack());
-                    stats.setDefense(pal.getStats().getDefense());
-                    stats.setRideSpeed(pal.getStats().getRideSpeed());
-                    stats.setRunSpeed(pal.getStats().getRunSpeed());
-                    stats.setWalkSpeed(pal.getStats().getWalkSpeed());
-                    stats.setStamina(pal.getStats().getStamina());
-                    stats.setSupport(pal.getStats().getSupport());
-                    stats.setFood(pal.getStats().getFood());
-                } else {
-                    // Créer de nouvelles stats - gérer manuellement la persistance
-                    PalStatEntity newStats = pal.getStats();
-                    newStats.setId(null);
-                    newStats.setPal(existing);
-                    entityManager.persist(newStats);
-                    existing.setStats(newStats);
-                }
-            }
-            
-            PalEntity saved = palDAO.save(existing);
-            entityManager.flush();
-            return saved;
+        boolean isNew = pal.getId() == null || !palStore.existsById(pal.getId());
+
+        PalEntity saved = isNew ? palStore.create(pal) : palStore.update(pal);
+        eventPublisher.publishEvent(new PalChangedEvent(saved.getId()));
+        return saved;
+    }
+
+    /**
+     * Applique un JSON Merge Patch (RFC 7396) au pal.
+     */
+    public PalEntity mergePatch(int id, JsonNode patch) {
+        return patch(id, document -> JsonPatches.mergePatch(document, patch));
+    }
+
+    /**
+     * Applique un JSON Patch (RFC 6902) au pal ; les enfants sont adressés par leur position dans les listes.
+     */
+    public PalEntity jsonPatch(int id, JsonNode operations) {
+        return patch(id, document -> JsonPatches.jsonPatch(document, operations));
+    }
+
+    // Le patch est appliqué à la représentation JSON du pal puis recopié dedans comme un PUT : en JPA, le dirty
+    // checking (@DynamicUpdate) n'écrit que les colonnes modifiées, la fusion des enfants que les lignes concernées.
+    // Des stats à null sont ignorées, comme pour un PUT.
+    private PalEntity patch(int id, UnaryOperator<JsonNode> change) {
+        PalEntity existing = palStore.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Pal non trouvé : " + id));
+        PalEntity patched;
+        try {
+            patched = objectMapper.treeToValue(change.apply(objectMapper.valueToTree(existing)), PalEntity.class);
+        } catch (InvalidPatchException e) {
+            throw e;
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            throw new InvalidPatchException("Le pal patché n'est pas valide : " + e.getMessage());
         }
+        patched.setId(id);
 
+        PalEntity saved = palStore.update(patched);
+        eventPublisher.publishEvent(new PalChangedEvent(id));
+        return saved;
     }
 
     public void deleteById(int id) {
-        palDAO.deleteById(id);
+        palStore.deleteById(id);
+        eventPublisher.publishEvent(new PalChangedEvent(id));
+    }
+
+    /**
+     * Suppression conditionnelle (If-Match) : le pal doit exister et être encore à la version attendue.
+     */
+    public void deleteById(int id, long expectedVersion) {
+        palStore.deleteById(id, expectedVersion);
+        eventPublisher.publishEvent(new PalChangedEvent(id));
     }
 
     public List<PalSkillEntity> getSkills(int palId) {
-        PalEntity pal = palDAO.findById(palId)
+        PalEntity pal = palStore.findById(palId)
                 .orElseThrow(() -> new IllegalArgumentException("Pal non trouvé : " + palId));
         return pal.getSkills();
     }
 
     public PalSkillEntity addSkill(int palId, PalSkillEntity skill) {
-        PalEntity pal = palDAO.findById(palId)
-                .orElseThrow(() -> new IllegalArgumentException("Pal non trouvé : " + palId));
-        skill.setPal(pal);
-        pal.getSkills().add(skill);
-        palDAO.save(pal);
+        palStore.modify(palId, pal -> {
+            skill.setPal(pal);
+            pal.getSkills().add(skill);
+        });
+        eventPublisher.publishEvent(new PalChangedEvent(palId));
         return skill;
     }
 
     public PalSkillEntity modifySkill(int palId, long skillId, PalSkillEntity updated) {
-        PalEntity pal = palDAO.findById(palId)
-                .orElseThrow(() -> new IllegalArgumentException("Pal non trouvé : " + palId));
-        PalSkillEntity existing = pal.getSkills().stream()
-                .filter(s -> s.getId() == skillId)
-                .findFirst()
-                .orElseThrow(() -> new IllegalArgumentException("Skill non trouvé : " + skillId));
+        PalSkillEntity[] modified = new PalSkillEntity[1];
+        palStore.modify(palId, pal -> {
+            PalSkillEntity existing = pal.getSkills().stream()
+                    .filter(s -> s.getId() == skillId)
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Skill non trouvé : " + skillId));
 
-        existing.setName(updated.getName());
-        existing.setType(updated.getType());
-        existing.setLevel(updated.getLevel());
-        existing.setCooldown(updated.getCooldown());
-        existing.setPower(updated.getPower());
-        existing.setDescription(updated.getDescription());
+            existing.setName(updated.getName());
+            existing.setType(updated.getType());
+            existing.setLevel(updated.getLevel());
+            existing.setCooldown(updated.getCooldown());
+            existing.setPower(updated.getPower());
+            existing.setDescription(updated.getDescription());
+            modified[0] = existing;
+        });
 
-        return existing;
+        eventPublisher.publishEvent(new PalChangedEvent(palId));
+        return modified[0];
     }
 
     public List<PalTypeEntity> getTypes(int palId) {
-        PalEntity pal = palDAO.findById(palId)
+        PalEntity pal = palStore.findById(palId)
                 .orElseThrow(() -> new IllegalArgumentException("Pal non trouvé : " + palId));
         Hibernate.initialize(pal.getTypes());
         return pal.getTypes();
     }
 
     public PalTypeEntity addType(int palId, String type) {
-        PalEntity pal = palDAO.findById(palId)
-                .orElseThrow(() -> new IllegalArgumentException("Pal non trouvé : " + palId));
         PalTypeEntity palType = new PalTypeEntity();
         palType.setType(type);
-        palType.setPal(pal);
-        pal.getTypes().add(palType);
-        palDAO.save(pal);
+        palStore.modify(palId, pal -> {
+            palType.setPal(pal);
+            pal.getTypes().add(palType);
+        });
+        eventPublisher.publishEvent(new PalChangedEvent(palId));
         return palType;
     }
 
     public void removeType(int palId, long typeId) {
-        PalEntity pal = palDAO.findById(palId)
-                .orElseThrow(() -> new IllegalArgumentException("Pal non trouvé : " + palId));
-        boolean removed = pal.getTypes().removeIf(t -> t.getId() == typeId);
-        if (!removed) {
-            throw new IllegalArgumentException("Type non trouvé : " + typeId);
-        }
-        palDAO.save(pal);
+        palStore.modify(palId, pal -> {
+            boolean removed = pal.getTypes().removeIf(t -> t.getId() == typeId);
+            if (!removed) {
+                throw new IllegalArgumentException("Type non trouvé : " + typeId);
+            }
+        });
+        eventPublisher.publishEvent(new PalChangedEvent(palId));
     }
 
-    public List<PalEntity> getSortedByRarity(int limit) {
-        return palDAO.findAll().stream()
-                .sorted(Comparator.comparing(PalEntity::getRarity).reversed())
-                .limit(limit)
-                .toList();
+    // Pagination par clé (after = id du dernier pal reçu) prioritaire sur l'offset
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<PalEntity> getSortedByRarity(int limit, int offset, Integer after) {
+        return palCatalogHolder.current().sortedByRarity(limit, offset, after);
     }
 
-    public List<PalEntity> getSortedByPrice(int limit) {
-        return palDAO.findAll().stream()
-                .sorted(Comparator.comparing(PalEntity::getPrice).reversed())
-                .limit(limit)
-                .toList();
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<PalEntity> getSortedByPrice(int limit, int offset, Integer after) {
+        return palCatalogHolder.current().sortedByPrice(limit, offset, after);
     }
 }
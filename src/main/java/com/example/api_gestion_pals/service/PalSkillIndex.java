@@ -0,0 +1,229 @@
+package com.example.api_gestion_pals.service;
+
+import com.example.api_gestion_pals.model.PalEntity;
+import com.example.api_gestion_pals.model.PalSkillEntity;
+
+import java.util.*;
+import java.util.function.IntFunction;
+
+/**
+ * Index inversé plein texte des compétences d'un instantané du catalogue (nom, type et description).
+ * <p>
+ * Chaque terme a sa liste de postings : compétence (pal et rang dans ses compétences), longueur du document
+ * et positions du terme, qui servent aux expressions entre guillemets. Les résultats sont classés par BM25.
+ * Comme {@link PalNameIndex}, {@link #with} et {@link #without} ne réécrivent que les listes des termes
+ * du pal modifié.
+ */
+final class PalSkillIndex {
+
+    // Paramètres BM25 usuels : saturation de la fréquence du terme et normalisation par la longueur
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "at", "by", "for", "from", "in", "into", "is", "it", "its", "of", "on", "or",
+            "that", "the", "their", "then", "to", "with");
+
+    private record Posting(int palId, int skill, int length, int[] positions) {
+    }
+
+    private record Document(int palId, int skill) {
+    }
+
+    private final Map<String, Posting[]> postings;
+    private final int documents;
+    private final long totalLength;
+
+    private PalSkillIndex(Map<String, Posting[]> postings, int documents, long totalLength) {
+        this.postings = postings;
+        this.documents = documents;
+        this.totalLength = totalLength;
+    }
+
+    static PalSkillIndex of(PalEntity[] pals) {
+        return new PalSkillIndex(Map.of(), 0, 0).withChanges(List.of(), Arrays.asList(pals));
+    }
+
+    PalSkillIndex with(PalEntity previous, PalEntity next) {
+        return withChanges(previous == null ? List.of() : List.of(previous), List.of(next));
+    }
+
+    PalSkillIndex without(PalEntity removed) {
+        return withChanges(List.of(removed), List.of());
+    }
+
+    /**
+     * Pals dont au moins une compétence correspond à {@code query}, du plus pertinent au moins pertinent.
+     * Les mots isolés sont optionnels (une compétence doit en contenir au moins un) ; une expression entre
+     * guillemets doit apparaître telle quelle. {@code lookup} donne les pals par id.
+     */
+    List<PalSkillSearchResult> search(String query, int limit, IntFunction<PalEntity> lookup) {
+        List<String> words = new ArrayList<>();
+        List<List<Token>> phrases = new ArrayList<>();
+        String[] parts = query.split("\"", -1);
+        for (int i = 0; i < parts.length; i++) {
+            List<Token> tokens = tokenize(parts[i]);
+            if (i % 2 == 1 && !tokens.isEmpty()) {
+                phrases.add(tokens);
+            }
+            tokens.forEach(token -> words.add(token.term()));
+        }
+        if (words.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        Map<Document, Double> scores = new HashMap<>();
+        double averageLength = documents == 0 ? 0 : (double) totalLength / documents;
+        for (String term : new LinkedHashSet<>(words)) {
+            Posting[] list = postings.getOrDefault(term, new Posting[0]);
+            double idf = Math.log(1 + (documents - list.length + 0.5) / (list.length + 0.5));
+            for (Posting posting : list) {
+                double frequency = posting.positions().length;
+                double score = idf * frequency * (K1 + 1)
+                        / (frequency + K1 * (1 - B + B * posting.length() / averageLength));
+                scores.merge(new Document(posting.palId(), posting.skill()), score, Double::sum);
+            }
+        }
+        for (List<Token> phrase : phrases) {
+            Set<Document> matching = phraseMatches(phrase);
+            scores.keySet().retainAll(matching);
+        }
+
+        Map<Integer, List<PalSkillSearchResult.Hit>> byPal = new HashMap<>();
+        scores.forEach((document, score) -> {
+            PalEntity pal = lookup.apply(document.palId());
+            byPal.computeIfAbsent(document.palId(), k -> new ArrayList<>())
+                    .add(new PalSkillSearchResult.Hit(pal.getSkills().get(document.skill()), score));
+        });
+        Comparator<PalSkillSearchResult.Hit> byScore = Comparator.comparingDouble(PalSkillSearchResult.Hit::score).reversed();
+        return byPal.entrySet().stream()
+                .map(entry -> {
+                    List<PalSkillSearchResult.Hit> hits = entry.getValue().stream().sorted(byScore).toList();
+                    return new PalSkillSearchResult(entry.getKey(), lookup.apply(entry.getKey()).getName(),
+                            hits.get(0).score(), hits);
+                })
+                .sorted(Comparator.comparingDouble(PalSkillSearchResult::score).reversed()
+                        .thenComparingInt(PalSkillSearchResult::id))
+                .limit(limit)
+                .toList();
+    }
+
+    // Compétences où les termes de l'expression se suivent avec les mêmes écarts que dans la saisie
+    private Set<Document> phraseMatches(List<Token> phrase) {
+        Token first = phrase.get(0);
+        Map<Document, int[]> candidates = new HashMap<>();
+        for (Posting posting : postings.getOrDefault(first.term(), new Posting[0])) {
+            candidates.put(new Document(posting.palId(), posting.skill()), posting.positions());
+        }
+        for (Token token : phrase.subList(1, phrase.size())) {
+            Map<Document, int[]> positions = new HashMap<>();
+            for (Posting posting : postings.getOrDefault(token.term(), new Posting[0])) {
+                positions.put(new Document(posting.palId(), posting.skill()), posting.positions());
+            }
+            int offset = token.position() - first.position();
+            candidates.entrySet().removeIf(candidate -> {
+                int[] next = positions.get(candidate.getKey());
+                if (next == null) {
+                    return true;
+                }
+                for (int start : candidate.getValue()) {
+                    if (Arrays.binarySearch(next, start + offset) >= 0) {
+                        return false;
+                    }
+                }
+                return true;
+            });
+        }
+        return candidates.keySet();
+    }
+
+    private PalSkillIndex withChanges(Collection<PalEntity> removed, Collection<PalEntity> added) {
+        Map<String, Posting[]> next = new HashMap<>(postings);
+        int nextDocuments = documents;
+        long nextLength = totalLength;
+
+        for (PalEntity pal : removed) {
+            Set<String> terms = new HashSet<>();
+            for (PalSkillEntity skill : pal.getSkills()) {
+                List<Token> tokens = tokenize(skill);
+                tokens.forEach(token -> terms.add(token.term()));
+                nextDocuments--;
+                nextLength -= tokens.size();
+            }
+            for (String term : terms) {
+                Posting[] remaining = Arrays.stream(next.getOrDefault(term, new Posting[0]))
+                        .filter(posting -> posting.palId() != pal.getId())
+                        .toArray(Posting[]::new);
+                if (remaining.length == 0) {
+                    next.remove(term);
+                } else {
+                    next.put(term, remaining);
+                }
+            }
+        }
+
+        Map<String, List<Posting>> additions = new HashMap<>();
+        for (PalEntity pal : added) {
+            List<PalSkillEntity> skills = pal.getSkills();
+            for (int skill = 0; skill < skills.size(); skill++) {
+                List<Token> tokens = tokenize(skills.get(skill));
+                int length = tokens.size();
+                Map<String, List<Integer>> positions = new LinkedHashMap<>();
+                tokens.forEach(token -> positions.computeIfAbsent(token.term(), k -> new ArrayList<>()).add(token.position()));
+                for (Map.Entry<String, List<Integer>> entry : positions.entrySet()) {
+                    int[] sorted = entry.getValue().stream().mapToInt(Integer::intValue).toArray();
+                    additions.computeIfAbsent(entry.getKey(), k -> new ArrayList<>())
+                            .add(new Posting(pal.getId(), skill, length, sorted));
+                }
+                nextDocuments++;
+                nextLength += length;
+            }
+        }
+        Comparator<Posting> order = Comparator.comparingInt(Posting::palId).thenComparingInt(Posting::skill);
+        additions.forEach((term, list) -> {
+            List<Posting> merged = new ArrayList<>(Arrays.asList(next.getOrDefault(term, new Posting[0])));
+            merged.addAll(list);
+            merged.sort(order);
+            next.put(term, merged.toArray(Posting[]::new));
+        });
+        return new PalSkillIndex(Map.copyOf(next), nextDocuments, nextLength);
+    }
+
+    private record Token(String term, int position) {
+    }
+
+    private static List<Token> tokenize(PalSkillEntity skill) {
+        // Les noms sont en snake_case (« ignis_blast ») : le découpage en mots les rend cherchables
+        return tokenize(String.join(" ",
+                Objects.requireNonNullElse(skill.getName(), ""),
+                Objects.requireNonNullElse(skill.getType(), ""),
+                Objects.requireNonNullElse(skill.getDescription(), "")));
+    }
+
+    // Mots normalisés avec leur position ; les mots vides ne sont pas indexés mais occupent une position
+    private static List<Token> tokenize(String text) {
+        List<Token> tokens = new ArrayList<>();
+        int position = 0;
+        for (String word : PalNameIndex.normalize(text).split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            if (!STOP_WORDS.contains(word)) {
+                tokens.add(new Token(stem(word), position));
+            }
+            position++;
+        }
+        return tokens;
+    }
+
+    // Racinisation minimale : « fireballs » et « fireball », « burning » et « burn » donnent le même terme
+    private static String stem(String word) {
+        if (word.length() > 5 && word.endsWith("ing")) {
+            return word.substring(0, word.length() - 3);
+        }
+        if (word.length() > 3 && word.endsWith("s") && !word.endsWith("ss")) {
+            return word.substring(0, word.length() - 1);
+        }
+        return word;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.api_gestion_pals.service;
+
+import com.example.api_gestion_pals.model.PalSkillEntity;
+
+import java.util.List;
+
+/**
+ * Pal ayant au moins une compétence correspondant à la recherche plein texte (GET /pals/skills/search).
+ *
+ * @param score  score BM25 de sa meilleure compétence
+ * @param skills compétences correspondantes, de la plus pertinente à la moins pertinente
+ */
+public record PalSkillSearchResult(int id, String name, double score, List<Hit> skills) {
+
+    public record Hit(PalSkillEntity skill, double score) {
+    }
+}
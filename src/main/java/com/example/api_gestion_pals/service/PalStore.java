@@ -0,0 +1,88 @@
+package com.example.api_gestion_pals.service;
+
+import com.example.api_gestion_pals.DAO.PalSearchCriteria;
+import com.example.api_gestion_pals.model.PalEntity;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Stockage des pals utilisé par {@link PalService}, {@link PalBatchService} et {@link PalCatalogHolder}.
+ * <p>
+ * Deux implémentations : {@link JpaPalStore} (tables relationnelles, par défaut) et le stockage documentaire
+ * du profil {@code mongo} (un document par pal). Les pals échangés sont toujours des {@link PalEntity} ;
+ * les vérifications de version ({@link PalVersionMismatchException}) et les erreurs « pal non trouvé »
+ * ({@link IllegalArgumentException}) sont les mêmes pour les deux.
+ */
+public interface PalStore {
+
+    long count();
+
+    List<PalEntity> findAll();
+
+    Optional<PalEntity> findById(int id);
+
+    List<PalEntity> findByIdIn(Collection<Integer> ids);
+
+    boolean existsById(int id);
+
+    /**
+     * Pagination par clé : les {@code size} pals d'id strictement supérieur à {@code after}, par id croissant.
+     */
+    List<PalEntity> findPage(Integer after, int size);
+
+    /**
+     * Parcourt tous les pals par tranches de {@code chunkSize}, sans les garder tous en mémoire.
+     */
+    void forEach(int chunkSize, Consumer<PalEntity> consumer);
+
+    Page<PalEntity> search(PalSearchCriteria criteria, Pageable pageable);
+
+    /**
+     * Crée le pal (avec ses enfants et ses stats) et renvoie la version stockée.
+     */
+    PalEntity create(PalEntity pal);
+
+    /**
+     * Remplace le pal de même id ; des stats à {@code null} sont conservées.
+     *
+     * @throws IllegalArgumentException         si le pal n'existe pas
+     * @throws PalVersionMismatchException si {@code pal} porte une version qui n'est plus la courante
+     */
+    PalEntity update(PalEntity pal);
+
+    /**
+     * Lit le pal, lui applique {@code change} (ajout ou modification d'enfants...) et l'enregistre en
+     * incrémentant sa version.
+     *
+     * @throws IllegalArgumentException si le pal n'existe pas
+     */
+    PalEntity modify(int id, Consumer<PalEntity> change);
+
+    void deleteById(int id);
+
+    /**
+     * @throws PalVersionMismatchException si le pal n'existe pas ou n'est plus à la version attendue
+     */
+    void deleteById(int id, long expectedVersion);
+
+    // Écritures groupées (PalBatchService) : envoyées au plus tard par flush()
+
+    /**
+     * Ajoute un nouveau pal au lot en cours.
+     */
+    void insert(PalEntity pal);
+
+    /**
+     * Remplace {@code current}, lu par {@link #findByIdIn(Collection)} dans le lot en cours, par {@code pal}.
+     *
+     * @throws PalVersionMismatchException si {@code pal} porte une version qui n'est plus la courante
+     */
+    void replace(PalEntity current, PalEntity pal);
+
+    void flush();
+}
@@ -0,0 +1,20 @@
+package com.example.api_gestion_pals.service;
+
+/**
+ * Suggestion d'autocomplétion renvoyée par GET /pals/suggest.
+ *
+ * @param distance nombre de corrections (insertion, suppression, substitution) entre la saisie
+ *                 et le début du nom ou de la clé ; 0 sauf pour {@link Match#FUZZY}
+ */
+public record PalSuggestion(int id, String name, String palKey, Match match, int distance) {
+
+    /**
+     * Type de correspondance, du plus pertinent au moins pertinent.
+     */
+    public enum Match {
+        EXACT,
+        PREFIX,
+        WORD_PREFIX,
+        FUZZY
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.api_gestion_pals.service;
+
+import com.example.api_gestion_pals.model.PalEntity;
+import com.example.api_gestion_pals.model.PalStatEntity;
+import com.example.api_gestion_pals.model.PalSuitabilityEntity;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Classements par aptitude d'un instantané du catalogue : pour chaque aptitude, les ids des pals qui l'ont,
+ * du meilleur au moins bon (niveau décroissant, puis consommation de nourriture croissante, vitesse de marche
+ * décroissante et id croissant).
+ * <p>
+ * Les classements sont des tableaux d'ids, indépendants des positions dans l'instantané : quand un seul pal
+ * change, {@link #with} ne retouche que les aptitudes de l'ancienne et de la nouvelle version du pal, par
+ * retrait et insertion dichotomique ; les autres tableaux sont partagés avec l'instantané précédent.
+ */
+final class PalSuitabilityRanking {
+
+    private static final Comparator<PalStatEntity> BY_STATS = Comparator
+            .comparing(PalStatEntity::getFood, Comparator.nullsLast(Comparator.<Integer>naturalOrder()))
+            .thenComparing(PalStatEntity::getWalkSpeed, Comparator.nullsLast(Comparator.<Integer>reverseOrder()));
+
+    private final Map<String, int[]> idsBySuitability;
+
+    private PalSuitabilityRanking(Map<String, int[]> idsBySuitability) {
+        this.idsBySuitability = idsBySuitability;
+    }
+
+    static PalSuitabilityRanking of(PalEntity[] pals) {
+        Map<String, List<PalEntity>> bySuitability = new HashMap<>();
+        for (PalEntity pal : pals) {
+            suitabilities(pal).forEach(type -> bySuitability.computeIfAbsent(type, k -> new ArrayList<>()).add(pal));
+        }
+        Map<String, int[]> ranking = new HashMap<>();
+        bySuitability.forEach((type, candidates) -> ranking.put(type, candidates.stream()
+                .sorted(comparator(type))
+                .mapToInt(PalEntity::getId)
+                .toArray()));
+        return new PalSuitabilityRanking(Map.copyOf(ranking));
+    }
+
+    /**
+     * Classements où {@code next} remplace {@code previous} (absent si {@code null}) ; {@code lookup} donne
+     * les autres pals par id, inchangés.
+     */
+    PalSuitabilityRanking with(PalEntity previous, PalEntity next, IntFunction<PalEntity> lookup) {
+        Map<String, int[]> ranking = new HashMap<>(idsBySuitability);
+        if (previous != null) {
+            for (String type : suitabilities(previous)) {
+                remove(ranking, type, previous.getId());
+            }
+        }
+        for (String type : suitabilities(next)) {
+            int[] ids = ranking.getOrDefault(type, new int[0]);
+            Comparator<PalEntity> comparator = comparator(type);
+            int low = 0;
+            int high = ids.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (comparator.compare(lookup.apply(ids[middle]), next) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            int[] inserted = new int[ids.length + 1];
+            System.arraycopy(ids, 0, inserted, 0, low);
+            inserted[low] = next.getId();
+            System.arraycopy(ids, low, inserted, low + 1, ids.length - low);
+            ranking.put(type, inserted);
+        }
+        return new PalSuitabilityRanking(Map.copyOf(ranking));
+    }
+
+    PalSuitabilityRanking without(PalEntity removed) {
+        Map<String, int[]> ranking = new HashMap<>(idsBySuitability);
+        for (String type : suitabilities(removed)) {
+            remove(ranking, type, removed.getId());
+        }
+        return new PalSuitabilityRanking(Map.copyOf(ranking));
+    }
+
+    /**
+     * Ids des {@code limit} meilleurs pals pour l'aptitude, du meilleur au moins bon.
+     */
+    int[] top(String suitability, int limit) {
+        int[] ids = idsBySuitability.getOrDefault(suitability.toLowerCase(Locale.ROOT), new int[0]);
+        return Arrays.copyOf(ids, Math.min(ids.length, Math.max(limit, 0)));
+    }
+
+    private static void remove(Map<String, int[]> ranking, String type, int id) {
+        int[] ids = ranking.get(type);
+        if (ids == null) {
+            return;
+        }
+        int[] remaining = Arrays.stream(ids).filter(other -> other != id).toArray();
+        if (remaining.length == 0) {
+            ranking.remove(type);
+        } else {
+            ranking.put(type, remaining);
+        }
+    }
+
+    // Aptitudes de niveau > 0 du pal, en minuscules
+    private static Set<String> suitabilities(PalEntity pal) {
+        Set<String> types = new HashSet<>();
+        for (PalSuitabilityEntity suitability : pal.getSuitabilities()) {
+            if (suitability.getType() != null && suitability.getLevel() != null && suitability.getLevel() > 0) {
+                types.add(suitability.getType().toLowerCase(Locale.ROOT));
+            }
+        }
+        return types;
+    }
+
+    private static Comparator<PalEntity> comparator(String type) {
+        Function<PalEntity, Integer> level = pal -> pal.getSuitabilities().stream()
+                .filter(suitability -> suitability.getType() != null && suitability.getLevel() != null)
+                .filter(suitability -> suitability.getType().equalsIgnoreCase(type))
+                .mapToInt(PalSuitabilityEntity::getLevel)
+                .max()
+                .orElse(0);
+        return Comparator.comparing(level, Comparator.reverseOrder())
+                .thenComparing(PalEntity::getStats, Comparator.nullsLast(BY_STATS))
+                .thenComparing(PalEntity::getId);
+    }
+}
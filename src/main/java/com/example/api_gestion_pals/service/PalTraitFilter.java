@@ -0,0 +1,27 @@
+package com.example.api_gestion_pals.service;
+
+import java.util.List;
+
+/**
+ * Filtre sur les types et les aptitudes, résolu par les bitmaps du catalogue ({@link PalCatalog#findMatching}).
+ * Une liste vide ou une aptitude {@code null} ne filtre pas.
+ *
+ * @param types               types recherchés
+ * @param allTypes            {@code true} : le pal doit avoir tous les types, sinon au moins un
+ * @param excludedTypes       types que le pal ne doit pas avoir
+ * @param suitability         aptitude (kindling, mining...)
+ * @param minSuitabilityLevel niveau minimal pour {@code suitability}
+ */
+public record PalTraitFilter(
+        List<String> types,
+        boolean allTypes,
+        List<String> excludedTypes,
+        String suitability,
+        int minSuitabilityLevel
+) {
+
+    public PalTraitFilter {
+        types = types == null ? List.of() : List.copyOf(types);
+        excludedTypes = excludedTypes == null ? List.of() : List.copyOf(excludedTypes);
+    }
+}
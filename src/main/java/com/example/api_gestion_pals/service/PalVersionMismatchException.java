@@ -0,0 +1,19 @@
+package com.example.api_gestion_pals.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * La version attendue par le client (If-Match ou champ {@code version}) n'est plus celle du pal.
+ */
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class PalVersionMismatchException extends IllegalStateException {
+
+    public PalVersionMismatchException(int palId, Long expected, Long actual) {
+        super("Version du pal " + palId + " attendue : " + expected + ", actuelle : " + actual);
+    }
+
+    public PalVersionMismatchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.api_gestion_pals.service;
+
+import com.example.api_gestion_pals.model.PalEntity;
+import com.example.api_gestion_pals.model.PalSkillEntity;
+import com.example.api_gestion_pals.model.PalStatEntity;
+import com.example.api_gestion_pals.model.PalSuitabilityEntity;
+import com.example.api_gestion_pals.model.PalTypeEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+
+import java.util.*;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Étapes d'écriture d'un pal communes à {@link PalService#save(PalEntity)} et à {@link PalBatchService}.
+ */
+final class PalWrites {
+
+    private PalWrites() {
+    }
+
+    /**
+     * Prépare un nouveau pal pour la persistance en cascade : les ids des enfants sont réinitialisés et les stats,
+     * qui ne sont pas en cascade, sont retirées pour être persistées après le pal.
+     *
+     * @return les stats retirées (éventuellement {@code null})
+     */
+    static PalStatEntity prepareForCreate(PalEntity pal) {
+        PalStatEntity stats = pal.getStats();
+
+        // Version attribuée par Hibernate à l'insertion
+        pal.setVersion(null);
+
+        // Retirer temporairement les stats
+        pal.setStats(null);
+
+        // Réinitialiser les IDs des entités enfants
+        if (pal.getTypes() != null) {
+            pal.getTypes().forEach(type -> {
+                type.setId(null);
+                type.setPal(pal);
+            });
+        }
+        if (pal.getSkills() != null) {
+            pal.getSkills().forEach(skill -> {
+                skill.setId(null);
+                skill.setPal(pal);
+            });
+        }
+        if (pal.getSuitabilities() != null) {
+            pal.getSuitabilities().forEach(suitability -> {
+                suitability.setId(null);
+                suitability.setPal(pal);
+            });
+        }
+        return stats;
+    }
+
+    /**
+     * Persiste manuellement les stats retirées par {@link #prepareForCreate(PalEntity)}.
+     */
+    static void persistStats(EntityManager entityManager, PalEntity managedPal, PalStatEntity stats) {
+        if (stats != null) {
+            stats.setId(null);
+            stats.setPal(managedPal);
+            entityManager.persist(stats);
+            managedPal.setStats(stats);
+        }
+    }
+
+    /**
+     * Recopie {@code pal} dans l'entité gérée {@code existing} : champs simples, listes fusionnées, stats mises à jour.
+     * Si {@code pal} porte une version, elle doit être celle de {@code existing}. Toute modification d'un enfant
+     * incrémente la version du pal, comme une modification de ses propres champs.
+     */
+    static void applyUpdate(EntityManager entityManager, PalEntity existing, PalEntity pal) {
+        checkVersion(existing, pal.getVersion());
+
+        // Mettre à jour les champs de base
+        existing.setPalKey(pal.getPalKey());
+        existing.setName(pal.getName());
+        existing.setWiki(pal.getWiki());
+        existing.setRarity(pal.getRarity());
+        existing.setPrice(pal.getPrice());
+        existing.setSize(pal.getSize());
+
+        boolean childrenChanged = false;
+
+        // Fusionner les listes (par id, sinon clé naturelle) : seuls les enfants ajoutés, modifiés ou retirés produisent du SQL
+        if (pal.getTypes() != null) {
+            childrenChanged |= mergeChildren(existing.getTypes(), pal.getTypes(), PalTypeEntity::getId, PalTypeEntity::getType,
+                    (current, incoming) -> {
+                        if (!differs(current, incoming, PalTypeEntity::getType)) {
+                            return false;
+                        }
+                        current.setType(incoming.getType());
+                        return true;
+                    },
+                    type -> {
+                        type.setId(null);
+                        type.setPal(existing);
+                    });
+        }
+
+        if (pal.getSkills() != null) {
+            childrenChanged |= mergeChildren(existing.getSkills(), pal.getSkills(), PalSkillEntity::getId,
+                    skill -> Arrays.asList(skill.getName(), skill.getLevel()),
+                    (current, incoming) -> {
+                        if (!differs(current, incoming, PalSkillEntity::getName, PalSkillEntity::getLevel,
+                                PalSkillEntity::getType, PalSkillEntity::getCooldown, PalSkillEntity::getPower,
+                                PalSkillEntity::getDescription)) {
+                            return false;
+                        }
+                        current.setName(incoming.getName());
+                        current.setLevel(incoming.getLevel());
+                        current.setType(incoming.getType());
+                        current.setCooldown(incoming.getCooldown());
+                        current.setPower(incoming.getPower());
+                        current.setDescription(incoming.getDescription());
+                        return true;
+                    },
+                    skill -> {
+                        skill.setId(null);
+                        skill.setPal(existing);
+                    });
+        }
+
+        if (pal.getSuitabilities() != null) {
+            childrenChanged |= mergeChildren(existing.getSuitabilities(), pal.getSuitabilities(), PalSuitabilityEntity::getId,
+                    PalSuitabilityEntity::getType,
+                    (current, incoming) -> {
+                        if (!differs(current, incoming, PalSuitabilityEntity::getType, PalSuitabilityEntity::getLevel)) {
+                            return false;
+                        }
+                        current.setType(incoming.getType());
+                        current.setLevel(incoming.getLevel());
+                        return true;
+                    },
+                    suitability -> {
+                        suitability.setId(null);
+                        suitability.setPal(existing);
+                    });
+        }
+
+        // Mettre à jour les stats
+        if (pal.getStats() != null) {
+            if (existing.getStats() != null) {
+                // Mettre à jour les stats existantes
+                PalStatEntity stats = existing.getStats();
+                if (differs(stats, pal.getStats(), PalStatEntity::getHp, PalStatEntity::getMeleeAttack,
+                        PalStatEntity::getRangedAttack, PalStatEntity::getDefense, PalStatEntity::getRideSpeed,
+                        PalStatEntity::getRunSpeed, PalStatEntity::getWalkSpeed, PalStatEntity::getStamina,
+                        PalStatEntity::getSupport, PalStatEntity::getFood)) {
+                    stats.setHp(pal.getStats().getHp());
+                    stats.setMeleeAttack(pal.getStats().getMeleeAttack());
+                    stats.setRangedAttack(pal.getStats().getRangedAttack());
+                    stats.setDefense(pal.getStats().getDefense());
+                    stats.setRideSpeed(pal.getStats().getRideSpeed());
+                    stats.setRunSpeed(pal.getStats().getRunSpeed());
+                    stats.setWalkSpeed(pal.getStats().getWalkSpeed());
+                    stats.setStamina(pal.getStats().getStamina());
+                    stats.setSupport(pal.getStats().getSupport());
+                    stats.setFood(pal.getStats().getFood());
+                    childrenChanged = true;
+                }
+            } else {
+                // Créer de nouvelles stats - gérer manuellement la persistance
+                PalStatEntity newStats = pal.getStats();
+                newStats.setId(null);
+                newStats.setPal(existing);
+                entityManager.persist(newStats);
+                existing.setStats(newStats);
+                childrenChanged = true;
+            }
+        }
+
+        if (childrenChanged) {
+            touch(entityManager, existing);
+        }
+    }
+
+    /**
+     * Incrémente la version d'un pal géré au commit, pour une écriture qui ne touche que ses enfants.
+     */
+    static void touch(EntityManager entityManager, PalEntity managedPal) {
+        entityManager.lock(managedPal, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+    }
+
+    /**
+     * @throws PalVersionMismatchException si {@code expected} est renseignée et diffère de la version du pal
+     */
+    static void checkVersion(PalEntity managedPal, Long expected) {
+        if (expected != null && !expected.equals(managedPal.getVersion())) {
+            throw new PalVersionMismatchException(managedPal.getId(), expected, managedPal.getVersion());
+        }
+    }
+
+    /**
+     * Aligne {@code current} (collection gérée) sur {@code incoming}. Un élément entrant est apparié d'abord par id
+     * (enfant déjà présent, éventuellement renommé), sinon par clé naturelle ; les clés en double sont appariées
+     * une à une. Un élément apparié reçoit les valeurs entrantes via {@code update}, qui indique s'il a changé
+     * quelque chose (UPDATE par dirty checking), un élément entrant sans correspondant est rattaché et ajouté
+     * (INSERT), un élément existant non apparié est retiré (DELETE par orphanRemoval).
+     *
+     * @return {@code true} si la collection ou l'un de ses éléments a changé
+     */
+    static <T> boolean mergeChildren(List<T> current, List<T> incoming, Function<T, Long> id,
+                                     Function<T, Object> naturalKey, BiPredicate<T, T> update, Consumer<T> attach) {
+        Map<Long, T> byId = new HashMap<>();
+        Map<Object, Deque<T>> byKey = new HashMap<>();
+        for (T child : current) {
+            if (id.apply(child) != null) {
+                byId.put(id.apply(child), child);
+            }
+            byKey.computeIfAbsent(naturalKey.apply(child), key -> new ArrayDeque<>()).add(child);
+        }
+        Set<T> matched = Collections.newSetFromMap(new IdentityHashMap<>());
+        Map<T, T> matches = new IdentityHashMap<>();
+        for (T child : incoming) {
+            T match = id.apply(child) != null ? byId.get(id.apply(child)) : null;
+            if (match != null && matched.add(match)) {
+                matches.put(child, match);
+            }
+        }
+        boolean changed = false;
+        List<T> added = new ArrayList<>();
+        for (T child : incoming) {
+            T match = matches.get(child);
+            if (match == null) {
+                Deque<T> candidates = byKey.getOrDefault(naturalKey.apply(child), new ArrayDeque<>());
+                while (match == null && !candidates.isEmpty()) {
+                    T candidate = candidates.poll();
+                    if (matched.add(candidate)) {
+                        match = candidate;
+                    }
+                }
+            }
+            if (match != null) {
+                changed |= update.test(match, child);
+            } else {
+                attach.accept(child);
+                added.add(child);
+            }
+        }
+        changed |= current.removeIf(child -> !matched.contains(child));
+        changed |= current.addAll(added);
+        return changed;
+    }
+
+    @SafeVarargs
+    private static <T> boolean differs(T current, T incoming, Function<T, ?>... fields) {
+        for (Function<T, ?> field : fields) {
+            if (!Objects.equals(field.apply(current), field.apply(incoming))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.api_gestion_pals.service;
+
+import java.util.Set;
+
+/**
+ * Publié par {@link PalBatchService} après chaque lot : le catalogue est rafraîchi une seule fois pour tous ses pals.
+ */
+public record PalsChangedEvent(Set<Integer> palIds) {
+}
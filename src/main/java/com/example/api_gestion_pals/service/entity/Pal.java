@@ -1,8 +1,11 @@
 package com.example.api_gestion_pals.service.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.List;
 
+// Seuls les champs importés sont liés ; image, aura, maps, description, drops... sont sautés par le parseur
+@JsonIgnoreProperties(ignoreUnknown = true)
 public record Pal(
     @JsonProperty("_id") int id,
     String key,
@@ -10,7 +13,6 @@ public record Pal(
     String wiki,
     List<String> types,
     List<Suitability> suitability,
-    List<String> drops,
     List<Skill> skills,
     Stat stats,
     int rarity,
@@ -0,0 +1,131 @@
+package com.example.api_gestion_pals.DAO;
+
+import com.example.api_gestion_pals.model.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class PalDAOIT {
+
+    @Autowired
+    private PalDAO palDAO;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        deleteAllPals();
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void shouldSerializeFindAllInConstantNumberOfStatements() throws Exception {
+        createPals(1, 10);
+        long smallCatalog = statementsToSerialize(palDAO::findAll);
+
+        createPals(11, 50);
+        long largeCatalog = statementsToSerialize(palDAO::findAll);
+
+        // pals + stats (jointure), puis une sous-requête par collection : types, skills, suitabilities
+        assertThat(smallCatalog).isLessThanOrEqualTo(4);
+        assertThat(largeCatalog).isEqualTo(smallCatalog);
+    }
+
+    @Test
+    void shouldSerializeFindByTypeInConstantNumberOfStatements() throws Exception {
+        createPals(1, 10);
+        long smallCatalog = statementsToSerialize(() -> palDAO.findByTypes_TypeIgnoreCase("FIRE"));
+
+        createPals(11, 50);
+        long largeCatalog = statementsToSerialize(() -> palDAO.findByTypes_TypeIgnoreCase("FIRE"));
+
+        assertThat(smallCatalog).isLessThanOrEqualTo(4);
+        assertThat(largeCatalog).isEqualTo(smallCatalog);
+    }
+
+    @Test
+    void shouldSerializeKeysetPageInConstantNumberOfStatements() throws Exception {
+        createPals(1, 50);
+
+        long statements = statementsToSerialize(() -> palDAO.findByIdGreaterThanOrderByIdAsc(10, Limit.of(20)));
+
+        assertThat(statements).isLessThanOrEqualTo(4);
+    }
+
+    private long statementsToSerialize(Supplier<List<PalEntity>> query) throws Exception {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        List<PalEntity> pals = query.get();
+        objectMapper.writeValueAsString(pals);
+
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void createPals(int fromId, int toId) {
+        for (int id = fromId; id <= toId; id++) {
+            PalEntity pal = new PalEntity();
+            pal.setId(id);
+            pal.setName("Pal" + id);
+            pal.setPalKey(String.valueOf(id));
+            pal.setRarity(id % 5);
+            pal.setPrice(100 * id);
+
+            PalTypeEntity type = new PalTypeEntity();
+            type.setType("fire");
+            type.setPal(pal);
+            pal.getTypes().add(type);
+
+            PalSkillEntity skill = new PalSkillEntity();
+            skill.setName("skill" + id);
+            skill.setLevel(1);
+            skill.setPal(pal);
+            pal.getSkills().add(skill);
+
+            PalSuitabilityEntity suitability = new PalSuitabilityEntity();
+            suitability.setType("kindling");
+            suitability.setLevel(1);
+            suitability.setPal(pal);
+            pal.getSuitabilities().add(suitability);
+
+            entityManager.persist(pal);
+
+            PalStatEntity stats = new PalStatEntity();
+            stats.setHp(100);
+            stats.setPal(pal);
+            entityManager.persist(stats);
+            pal.setStats(stats);
+        }
+    }
+
+    private void deleteAllPals() {
+        entityManager.createQuery("delete from PalStatEntity").executeUpdate();
+        entityManager.createQuery("delete from PalTypeEntity").executeUpdate();
+        entityManager.createQuery("delete from PalSkillEntity").executeUpdate();
+        entityManager.createQuery("delete from PalSuitabilityEntity").executeUpdate();
+        entityManager.createQuery("delete from PalEntity").executeUpdate();
+    }
+}
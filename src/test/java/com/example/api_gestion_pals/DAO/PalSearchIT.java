@@ -0,0 +1,122 @@
+package com.example.api_gestion_pals.DAO;
+
+import com.example.api_gestion_pals.model.*;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Valeurs des critères écrites en clair dans le SQL : la requête relevée par H2 peut être passée telle quelle à EXPLAIN
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.criteria.value_handling_mode=inline")
+@ActiveProfiles("test")
+@Transactional
+class PalSearchIT {
+
+    @Autowired
+    private PalDAO palDAO;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        entityManager.createQuery("delete from PalStatEntity").executeUpdate();
+        entityManager.createQuery("delete from PalTypeEntity").executeUpdate();
+        entityManager.createQuery("delete from PalSkillEntity").executeUpdate();
+        entityManager.createQuery("delete from PalSuitabilityEntity").executeUpdate();
+        entityManager.createQuery("delete from PalEntity").executeUpdate();
+        for (int id = 1; id <= 40; id++) {
+            createPal(id, id % 2 == 0 ? List.of("fire") : List.of("fire", "dragon"), id % 4 + 1, 50 + id * 5);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void shouldCombineTypesSuitabilityAndRanges() {
+        PalSearchCriteria criteria = new PalSearchCriteria(List.of("fire", "dragon"), true, "kindling", 3,
+                null, new PalSearchCriteria.Range(null, 3000), Map.of("hp", new PalSearchCriteria.Range(100, 200)));
+
+        Page<PalEntity> page = palDAO.findAll(PalSpecifications.matching(criteria),
+                PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "price").and(Sort.by("id"))));
+
+        // impairs (fire + dragon) et kindling >= 3 : id % 4 == 3 ; prix <= 3000 et hp 100..200 : 10 <= id <= 30
+        assertThat(page.getTotalElements()).isEqualTo(5);
+        assertThat(page.getContent()).extracting(PalEntity::getId).containsExactly(27, 23, 19);
+        assertThat(page.getContent().get(0).getStats().getHp()).isEqualTo(185);
+    }
+
+    @Test
+    void shouldMatchAnyTypeWithoutDuplicates() {
+        PalSearchCriteria criteria = new PalSearchCriteria(List.of("fire", "dragon"), false, null, null,
+                new PalSearchCriteria.Range(4, 4), null, Map.of());
+
+        List<PalEntity> pals = palDAO.findAll(PalSpecifications.matching(criteria), Sort.by("id"));
+
+        assertThat(pals).extracting(PalEntity::getId).containsExactly(3, 7, 11, 15, 19, 23, 27, 31, 35, 39);
+    }
+
+    @Test
+    void shouldUseCompositeIndexesInQueryPlan() {
+        PalSearchCriteria criteria = new PalSearchCriteria(List.of("dragon"), false, "kindling", 2,
+                null, null, Map.of("hp", new PalSearchCriteria.Range(100, null)));
+        jdbcTemplate.execute("SET QUERY_STATISTICS TRUE");
+        try {
+            palDAO.findAll(PalSpecifications.matching(criteria));
+            String sql = jdbcTemplate.queryForList(
+                            "SELECT SQL_STATEMENT FROM INFORMATION_SCHEMA.QUERY_STATISTICS", String.class).stream()
+                    .filter(statement -> statement.startsWith("select") && statement.contains("exists"))
+                    .findFirst()
+                    .orElseThrow();
+
+            String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+
+            assertThat(plan).containsIgnoringCase("idx_pal_types_type_pal")
+                    .containsIgnoringCase("idx_pal_suitabilities_type_pal_level");
+        } finally {
+            jdbcTemplate.execute("SET QUERY_STATISTICS FALSE");
+        }
+    }
+
+    private void createPal(int id, List<String> types, int kindling, int hp) {
+        PalEntity pal = new PalEntity();
+        pal.setId(id);
+        pal.setName("Pal" + id);
+        pal.setPalKey(String.valueOf(id));
+        pal.setRarity(id % 4 + 1);
+        pal.setPrice(100 * id);
+        for (String value : types) {
+            PalTypeEntity type = new PalTypeEntity();
+            type.setType(value);
+            type.setPal(pal);
+            pal.getTypes().add(type);
+        }
+        PalSuitabilityEntity suitability = new PalSuitabilityEntity();
+        suitability.setType("kindling");
+        suitability.setLevel(kindling);
+        suitability.setPal(pal);
+        pal.getSuitabilities().add(suitability);
+        entityManager.persist(pal);
+
+        PalStatEntity stats = new PalStatEntity();
+        stats.setHp(hp);
+        stats.setPal(pal);
+        entityManager.persist(stats);
+        pal.setStats(stats);
+    }
+}
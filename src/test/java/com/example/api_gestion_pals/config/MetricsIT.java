@@ -0,0 +1,48 @@
+package com.example.api_gestion_pals.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class MetricsIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void shouldExposeRouteServiceAndHibernateMetricsToPrometheus() throws Exception {
+        mockMvc.perform(get("/pals").param("size", "10"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/pals/1"))
+                .andExpect(status().isOk());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(scrape)
+                .contains("http_server_requests_seconds_bucket")
+                .contains("uri=\"/pals\"")
+                .contains("pals_service_seconds_count")
+                .contains("method=\"getPage\"")
+                .contains("pals_http_statements_count")
+                .contains("hibernate_statements_total")
+                .contains("hibernate_collections_fetches_total")
+                .contains("hikaricp_connections")
+                .contains("pals_catalog_lookups_total{result=\"hit\"}")
+                .contains("pals_catalog_replacements_total")
+                .contains("pals_catalog_size");
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.api_gestion_pals.config;
+
+import com.example.api_gestion_pals.DAO.PalDAO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PalDataLoaderIT {
+
+    @Autowired
+    private PalDAO palDAO;
+
+    // pals.json coupé aux trois quarts : plusieurs lots sont déjà partis en base quand l'analyse échoue
+    @DynamicPropertySource
+    static void truncatedSource(DynamicPropertyRegistry registry) throws IOException {
+        byte[] json = new ClassPathResource("pals.json").getContentAsByteArray();
+        Path truncated = Files.createTempFile("pals-truncated", ".json");
+        truncated.toFile().deleteOnExit();
+        Files.write(truncated, Arrays.copyOf(json, json.length * 3 / 4));
+        registry.add("pals.import.location", () -> truncated.toUri().toString());
+    }
+
+    @Test
+    void shouldLeaveDatabaseEmptyWhenSourceIsTruncated() {
+        assertThat(palDAO.count()).isZero();
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.api_gestion_pals.config;
+
+import com.example.api_gestion_pals.model.PalEntity;
+import com.example.api_gestion_pals.service.PalMapper;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PalImportPipelineTest {
+
+    // Même réglage que l'ObjectMapper de Spring Boot
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    @Test
+    void shouldConvertRecordsInFileOrder() throws Exception {
+        String json = IntStream.rangeClosed(1, 500)
+                .mapToObj(id -> palJson(id, "Pal" + id))
+                .collect(Collectors.joining(",", "[", "]"));
+        PalImportPipeline pipeline = new PalImportPipeline(objectMapper, PalMapper::toEntity, 4, 8);
+        List<PalEntity> written = new ArrayList<>();
+
+        int count = pipeline.run(stream(json), written::add);
+
+        assertThat(count).isEqualTo(500);
+        assertThat(written).extracting(PalEntity::getId)
+                .containsExactlyElementsOf(IntStream.rangeClosed(1, 500).boxed().toList());
+        assertThat(written.get(0).getName()).isEqualTo("Pal1");
+        assertThat(written.get(0).getTypes()).extracting("type").containsExactly("fire");
+        assertThat(written.get(0).getSuitabilities()).extracting("level").containsExactly(2);
+        assertThat(written.get(0).getStats().getMeleeAttack()).isEqualTo(70);
+    }
+
+    @Test
+    void shouldAcceptEmptyArray() throws Exception {
+        PalImportPipeline pipeline = new PalImportPipeline(objectMapper, PalMapper::toEntity, 2, 4);
+
+        int count = pipeline.run(stream("[]"), pal -> {
+            throw new AssertionError("aucun pal attendu");
+        });
+
+        assertThat(count).isZero();
+    }
+
+    @Test
+    void shouldReportMalformedInput() {
+        PalImportPipeline pipeline = new PalImportPipeline(objectMapper, PalMapper::toEntity, 2, 4);
+
+        assertThatThrownBy(() -> pipeline.run(stream("{\"_id\": 1}"), pal -> {
+        })).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void shouldReportConversionFailure() {
+        PalImportPipeline pipeline = new PalImportPipeline(objectMapper, pal -> {
+            throw new IllegalArgumentException("pal invalide");
+        }, 2, 4);
+
+        assertThatThrownBy(() -> pipeline.run(stream("[" + palJson(1, "Pal1") + "]"), pal -> {
+        })).isInstanceOf(IllegalStateException.class)
+                .hasRootCauseMessage("pal invalide");
+    }
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Inclut des champs non importés (image, aura, drops) qui doivent être ignorés
+    private static String palJson(int id, String name) {
+        return """
+                {"_id": %d, "key": "%03d", "name": "%s", "image": "/img.png", "wiki": "https://wiki",
+                 "types": ["fire"], "suitability": [{"type": "kindling", "image": "/k.png", "level": 2}],
+                 "drops": ["bone"], "aura": {"name": "a", "description": "d", "tech": null},
+                 "skills": [{"level": 1, "name": "ignis_blast", "type": "fire", "cooldown": 1, "power": 30,
+                             "description": "Burns"}],
+                 "stats": {"hp": 65, "attack": {"melee": 70, "ranged": 75}, "defense": 70,
+                           "speed": {"ride": 0, "run": 400, "walk": 80}, "stamina": 100, "support": 100, "food": 2},
+                 "rarity": 1, "price": 1000, "size": "xs"}
+                """.formatted(id, id, name);
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.api_gestion_pals.config;
+
+import com.example.api_gestion_pals.service.PalService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PalResponseCacheFilterTest {
+
+    private static final String BODY = "[{\"id\":1,\"name\":\"Lamball\"}]";
+
+    private final PalService palService = mock(PalService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger calls = new AtomicInteger();
+    private PalResponseCacheFilter filter;
+
+    // Simule le contrôleur : liste JSON et ETag du catalogue, 304 si If-None-Match correspond
+    private final FilterChain chain = (request, response) -> {
+        calls.incrementAndGet();
+        HttpServletResponse servletResponse = (HttpServletResponse) response;
+        servletResponse.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        String etag = "\"catalog-" + palService.getCatalogTag() + "\"";
+        if (new ServletWebRequest((HttpServletRequest) request, servletResponse).checkNotModified(etag)) {
+            return;
+        }
+        servletResponse.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        servletResponse.setHeader(HttpHeaders.ETAG, etag);
+        response.getOutputStream().write(BODY.getBytes(StandardCharsets.UTF_8));
+    };
+
+    @BeforeEach
+    void setUp() {
+        when(palService.getCatalogTag()).thenReturn("a-1");
+        filter = new PalResponseCacheFilter(palService, meterRegistry, 16);
+    }
+
+    @Test
+    void shouldServeRepeatedRequestFromCache() throws Exception {
+        MockHttpServletResponse first = get(null, null);
+        MockHttpServletResponse second = get(null, null);
+
+        assertThat(calls).hasValue(1);
+        assertThat(second.getContentAsString()).isEqualTo(BODY).isEqualTo(first.getContentAsString());
+        assertThat(second.getHeader(HttpHeaders.ETAG)).isEqualTo("\"catalog-a-1\"");
+        assertThat(second.getContentType()).startsWith(MediaType.APPLICATION_JSON_VALUE);
+        assertThat(second.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(meterRegistry.get("pals.response.cache").tag("result", "hit").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldServeGzipVariant() throws Exception {
+        get(null, null);
+        MockHttpServletResponse response = get("gzip;q=1, br;q=0", null);
+
+        assertThat(calls).hasValue(1);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo("\"catalog-a-1-gzip\"");
+        assertThat(response.getHeader(HttpHeaders.VARY)).isEqualTo("Accept, Accept-Encoding");
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(BODY);
+        }
+    }
+
+    @Test
+    void shouldRefreshAfterCatalogChange() throws Exception {
+        get(null, null);
+        when(palService.getCatalogTag()).thenReturn("a-2");
+        MockHttpServletResponse response = get(null, null);
+
+        assertThat(calls).hasValue(2);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo("\"catalog-a-2\"");
+    }
+
+    @Test
+    void shouldAnswerNotModifiedFromCache() throws Exception {
+        get(null, null);
+        MockHttpServletResponse response = get(null, "\"catalog-a-1\"");
+
+        assertThat(calls).hasValue(1);
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        // L'ETag de la variante identity ne valide pas la variante gzip
+        assertThat(get("gzip", "\"catalog-a-1\"").getStatus()).isEqualTo(200);
+        assertThat(get("gzip", "\"catalog-a-1-gzip\"").getStatus()).isEqualTo(304);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void shouldAnswerNotModifiedForVariantETagWhenNotCached() throws Exception {
+        String etag = get("gzip", null).getHeader(HttpHeaders.ETAG);
+        // Entrée évincée par 16 autres URL : le contrôleur évalue If-None-Match
+        for (int i = 0; i < 16; i++) {
+            get(null, null, "limit", String.valueOf(i));
+        }
+        MockHttpServletResponse response = get("gzip", etag);
+
+        assertThat(calls).hasValue(18);
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo("\"catalog-a-1-gzip\"");
+        assertThat(response.getHeader(HttpHeaders.VARY)).isEqualTo("Accept, Accept-Encoding");
+        // Celui d'une autre variante ne valide pas la variante servie
+        filter = new PalResponseCacheFilter(palService, meterRegistry, 16);
+        assertThat(get("br;q=0, gzip", "\"catalog-a-1\"").getStatus()).isEqualTo(200);
+        filter = new PalResponseCacheFilter(palService, meterRegistry, 16);
+        assertThat(get(null, etag).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void shouldAnswerNotModifiedForVariantETagAfterInvalidation() throws Exception {
+        // Écriture commitée pendant la première réponse : entrée rangée sous a-1, ETag du catalogue a-2
+        when(palService.getCatalogTag()).thenReturn("a-1", "a-2");
+        String etag = get("gzip", null).getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isEqualTo("\"catalog-a-2-gzip\"");
+
+        // Entrée périmée, cache vidé : le contrôleur évalue If-None-Match
+        MockHttpServletResponse response = get("gzip", etag);
+
+        assertThat(calls).hasValue(2);
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(etag);
+        assertThat(meterRegistry.get("pals.response.cache").tag("result", "miss").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldMapVariantETagsForController() {
+        assertThat(PalResponseCacheFilter.ifNoneMatch("\"catalog-x-gzip\", W/\"catalog-x-br\"", "gzip"))
+                .isEqualTo("\"catalog-x\"");
+        assertThat(PalResponseCacheFilter.ifNoneMatch("W/\"catalog-x-br\"", "br")).isEqualTo("W/\"catalog-x\"");
+        assertThat(PalResponseCacheFilter.ifNoneMatch("\"catalog-x\"", "gzip")).isNull();
+        assertThat(PalResponseCacheFilter.ifNoneMatch("*", "gzip")).isEqualTo("*");
+        assertThat(PalResponseCacheFilter.ifNoneMatch("\"catalog-x-gzip\"", "identity")).isEqualTo("\"catalog-x-gzip\"");
+    }
+
+    @Test
+    void shouldKeySeparateEntriesByParameters() throws Exception {
+        get(null, null, "type", "fire");
+        get(null, null, "type", "water");
+        get(null, null, "type", "fire");
+
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void shouldChooseEncodingByQuality() {
+        assertThat(PalResponseCacheFilter.encoding(null)).isEqualTo("identity");
+        assertThat(PalResponseCacheFilter.encoding("gzip;q=0")).isEqualTo("identity");
+        assertThat(PalResponseCacheFilter.encoding("deflate, gzip")).isEqualTo("gzip");
+        assertThat(PalResponseCacheFilter.encoding("*;q=0.5, br;q=0")).isEqualTo("gzip");
+    }
+
+    private MockHttpServletResponse get(String acceptEncoding, String ifNoneMatch, String... parameter) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/pals");
+        for (int i = 0; i + 1 < parameter.length; i += 2) {
+            request.addParameter(parameter[i], parameter[i + 1]);
+        }
+        request.addHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
+        if (acceptEncoding != null) {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
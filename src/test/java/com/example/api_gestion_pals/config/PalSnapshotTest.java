@@ -0,0 +1,97 @@
+package com.example.api_gestion_pals.config;
+
+import com.example.api_gestion_pals.model.PalEntity;
+import com.example.api_gestion_pals.service.PalMapper;
+import com.example.api_gestion_pals.service.entity.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PalSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldRestoreWhatWasWritten() throws Exception {
+        Path path = directory.resolve("pals.snapshot");
+        String checksum = PalSnapshot.checksum(source("[1]"));
+        PalEntity lamball = PalMapper.toEntity(new Pal(1, "001", "Lamball", "https://wiki", List.of("neutral"),
+                List.of(new Suitability("handiwork", 1)),
+                List.of(new Skill(1, "roly_poly", "neutral", 9, 35, "Rolls toward an enemy — « énergie »")),
+                new Stat(70, new Attack(70, 70), 70, new Speed(0, 400, 80), 100, 100, 3), 1, 1000, "xs"));
+        PalEntity bare = new PalEntity();
+        bare.setId(2);
+
+        try (PalSnapshot.Writer writer = PalSnapshot.writer(path, checksum)) {
+            writer.write(lamball);
+            writer.write(bare);
+            writer.commit();
+        }
+        List<PalEntity> restored = new ArrayList<>();
+        int count = PalSnapshot.read(path, restored::add);
+
+        assertThat(count).isEqualTo(2);
+        assertThat(PalSnapshot.sourceChecksum(path)).isEqualTo(checksum);
+        PalEntity first = restored.get(0);
+        assertThat(first).usingRecursiveComparison()
+                .ignoringFields("types.pal", "suitabilities.pal", "skills.pal", "stats.pal")
+                .isEqualTo(lamball);
+        assertThat(first.getSkills().get(0).getPal()).isSameAs(first);
+        assertThat(restored.get(1).getName()).isNull();
+        assertThat(restored.get(1).getStats()).isNull();
+    }
+
+    @Test
+    void shouldTrackSourceChanges() throws Exception {
+        assertThat(PalSnapshot.checksum(source("[1]"))).isNotEqualTo(PalSnapshot.checksum(source("[2]")));
+        assertThat(PalSnapshot.sourceChecksum(directory.resolve("absent.snapshot"))).isNull();
+    }
+
+    @Test
+    void shouldRejectCorruptedImage() throws Exception {
+        Path path = directory.resolve("pals.snapshot");
+        try (PalSnapshot.Writer writer = PalSnapshot.writer(path, PalSnapshot.checksum(source("[]")))) {
+            PalEntity pal = new PalEntity();
+            pal.setId(1);
+            pal.setName("Lamball");
+            writer.write(pal);
+            writer.commit();
+        }
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length - 12] ^= 1;
+        Files.write(path, bytes);
+
+        assertThatThrownBy(() -> PalSnapshot.read(path, pal -> {
+        })).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void shouldDiscardUncommittedImage() throws Exception {
+        Path path = directory.resolve("pals.snapshot");
+
+        try (PalSnapshot.Writer writer = PalSnapshot.writer(path, PalSnapshot.checksum(source("[]")))) {
+            PalEntity pal = new PalEntity();
+            pal.setId(1);
+            writer.write(pal);
+        }
+
+        try (var files = Files.list(directory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    private static ByteArrayResource source(String json) {
+        return new ByteArrayResource(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.api_gestion_pals.config;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class VirtualThreadPinningMonitorTest {
+
+    private final Object lock = new Object();
+
+    @Test
+    void shouldReportVirtualThreadPinnedInSynchronizedBlock() throws Exception {
+        // À partir de Java 24 (JEP 491), synchronized ne bloque plus le thread porteur
+        assumeTrue(Runtime.version().feature() < 24);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(registry, Duration.ofMillis(10));
+        monitor.start();
+        try {
+            Thread.ofVirtual().start(() -> {
+                synchronized (lock) {
+                    sleep(100);
+                }
+            }).join();
+
+            Timer pinned = registry.get("pals.virtual-threads.pinned").timer();
+            // Les événements JFR sont livrés par lots, environ une fois par seconde
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (pinned.count() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(100);
+            }
+            assertThat(pinned.count()).isEqualTo(1);
+            assertThat(pinned.max(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(90);
+        } finally {
+            monitor.stop();
+        }
+        assertThat(monitor.isRunning()).isFalse();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -2,7 +2,9 @@ package com.example.api_gestion_pals.controller;
 
 import com.example.api_gestion_pals.DAO.PalDAO;
 import com.example.api_gestion_pals.model.*;
+import com.example.api_gestion_pals.service.PalCatalogHolder;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -35,12 +37,24 @@ class PalControllerIT {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private PalCatalogHolder palCatalogHolder;
+
+    @Autowired
+    private EntityManager entityManager;
+
     private PalEntity testPal;
 
     @BeforeEach
     void setUp() {
+        // Les stats (côté propriétaire du one-to-one, sans cascade depuis le pal) sont supprimées d'abord :
+        // sinon elles référencent encore les pals importés au moment du flush
+        entityManager.createQuery("delete from PalStatEntity").executeUpdate();
+        entityManager.clear();
         palDAO.deleteAll();
         testPal = createAndSaveTestPal(1, "TestPal");
+        // Les lectures passent par le catalogue en mémoire : on le recharge dans la transaction du test
+        palCatalogHolder.reload();
     }
 
     @Test
@@ -73,6 +87,7 @@ class PalControllerIT {
         fireType.setPal(firePal);
         firePal.getTypes().add(fireType);
         palDAO.save(firePal);
+        palCatalogHolder.reload();
 
         mockMvc.perform(get("/pals/by-type").param("type", "fire"))
                 .andExpect(status().isOk())
@@ -83,6 +98,7 @@ class PalControllerIT {
     @Test
     void shouldGetAllPals() throws Exception {
         createAndSaveTestPal(2, "Pal2");
+        palCatalogHolder.reload();
 
         mockMvc.perform(get("/pals"))
                 .andExpect(status().isOk())
@@ -123,6 +139,47 @@ class PalControllerIT {
         assertThat(saved.getRarity()).isEqualTo(5);
     }
 
+    @Test
+    void shouldCreatePalsInBatchWithPerItemErrors() throws Exception {
+        PalEntity first = createTestPal(200, "BatchPal1");
+        first.setStats(createTestStats());
+        PalEntity second = createTestPal(201, "BatchPal2");
+        List<PalEntity> batch = List.of(first, createTestPal(testPal.getId(), "Existing"), second,
+                createTestPal(200, "Duplicate"));
+
+        mockMvc.perform(post("/pals/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(4))
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[1].status").value("FAILED"))
+                .andExpect(jsonPath("$[2].status").value("CREATED"))
+                .andExpect(jsonPath("$[3].status").value("FAILED"));
+
+        assertThat(palDAO.findById(200)).get().extracting(PalEntity::getName).isEqualTo("BatchPal1");
+        assertThat(palDAO.findById(201)).isPresent();
+        assertThat(palDAO.findById(testPal.getId())).get().extracting(PalEntity::getName).isEqualTo("TestPal");
+    }
+
+    @Test
+    void shouldUpdatePalsInBatch() throws Exception {
+        PalEntity updated = createTestPal(testPal.getId(), "UpdatedPal");
+        updated.setPrice(900);
+
+        mockMvc.perform(put("/pals/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(updated, createTestPal(999, "Unknown")))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("UPDATED"))
+                .andExpect(jsonPath("$[1].status").value("FAILED"))
+                .andExpect(jsonPath("$[1].error").value("Pal non trouvé : 999"));
+
+        PalEntity saved = palDAO.findById(testPal.getId()).orElseThrow();
+        assertThat(saved.getName()).isEqualTo("UpdatedPal");
+        assertThat(saved.getPrice()).isEqualTo(900);
+    }
+
     @Test
     void shouldDeletePal() throws Exception {
         mockMvc.perform(delete("/pals/{id}", testPal.getId()))
@@ -208,6 +265,7 @@ class PalControllerIT {
         rarePal.setRarity(5);
         palDAO.save(commonPal);
         palDAO.save(rarePal);
+        palCatalogHolder.reload();
 
         mockMvc.perform(get("/pals/sorted/rarity").param("limit", "5"))
                 .andExpect(status().isOk())
@@ -223,6 +281,7 @@ class PalControllerIT {
         expensivePal.setPrice(1000);
         palDAO.save(cheapPal);
         palDAO.save(expensivePal);
+        palCatalogHolder.reload();
 
         mockMvc.perform(get("/pals/sorted/price").param("limit", "5"))
                 .andExpect(status().isOk())
@@ -230,6 +289,28 @@ class PalControllerIT {
                 .andExpect(jsonPath("$[0].price").value(1000));
     }
 
+    @Test
+    void shouldPageSortedByRarityWithStableTieBreak() throws Exception {
+        PalEntity first = createAndSaveTestPal(2, "RarePal");
+        first.setRarity(5);
+        PalEntity second = createAndSaveTestPal(3, "OtherRarePal");
+        second.setRarity(5);
+        palDAO.save(first);
+        palDAO.save(second);
+        palCatalogHolder.reload();
+
+        mockMvc.perform(get("/pals/sorted/rarity").param("limit", "1").param("offset", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(3));
+
+        mockMvc.perform(get("/pals/sorted/rarity").param("limit", "5").param("after", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(3))
+                .andExpect(jsonPath("$[1].id").value(testPal.getId()));
+    }
+
     // Méthodes utilitaires pour créer des entités de test
     private PalEntity createTestPal(Integer id, String name) {
         PalEntity pal = new PalEntity();
@@ -1,21 +1,40 @@
 package com.example.api_gestion_pals.controller;
 
+import com.example.api_gestion_pals.DAO.PalSearchCriteria;
 import com.example.api_gestion_pals.model.*;
+import com.example.api_gestion_pals.service.PalBatchResult;
+import com.example.api_gestion_pals.service.PalBatchService;
 import com.example.api_gestion_pals.service.PalService;
+import com.example.api_gestion_pals.service.PalSkillSearchResult;
+import com.example.api_gestion_pals.service.PalSuggestion;
+import com.example.api_gestion_pals.service.PalTraitFilter;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
-import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -28,9 +47,12 @@ class PalControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
-    @MockBean
+    @MockitoBean
     private PalService palService;
 
+    @MockitoBean
+    private PalBatchService palBatchService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -63,6 +85,30 @@ class PalControllerTest {
         verify(palService).getById(999);
     }
 
+    @Test
+    void shouldAnswerNotModifiedWhenETagMatches() throws Exception {
+        testPal.setVersion(3L);
+        when(palService.getById(1)).thenReturn(Optional.of(testPal));
+
+        mockMvc.perform(get("/pals/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-3\""));
+
+        mockMvc.perform(get("/pals/1").header("If-None-Match", "\"1-3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void shouldAnswerNotModifiedOnListWhenCatalogUnchanged() throws Exception {
+        when(palService.getCatalogTag()).thenReturn("boot-7");
+
+        mockMvc.perform(get("/pals").header("If-None-Match", "\"catalog-boot-7\""))
+                .andExpect(status().isNotModified());
+
+        verify(palService, never()).getAll();
+    }
+
     @Test
     void shouldGetPalByName() throws Exception {
         when(palService.getByName("TestPal")).thenReturn(Optional.of(testPal));
@@ -100,6 +146,142 @@ class PalControllerTest {
         verify(palService).getAll();
     }
 
+    @Test
+    void shouldRenderOnlyRequestedFields() throws Exception {
+        PalEntity pal = createTestPal(1, "TestPal");
+        PalTypeEntity type = new PalTypeEntity();
+        type.setId(1L);
+        type.setType("fire");
+        pal.getTypes().add(type);
+        PalSkillEntity skill = new PalSkillEntity();
+        skill.setName("Fireball");
+        skill.setDescription("x".repeat(1000));
+        pal.getSkills().add(skill);
+        PalStatEntity stats = new PalStatEntity();
+        stats.setHp(70);
+        stats.setDefense(80);
+        pal.setStats(stats);
+        when(palService.getAll()).thenReturn(List.of(pal));
+
+        mockMvc.perform(get("/pals").param("fields", "id,name,types,stats.hp"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].name").value("TestPal"))
+                .andExpect(jsonPath("$[0].types[0].type").value("fire"))
+                .andExpect(jsonPath("$[0].stats.hp").value(70))
+                .andExpect(jsonPath("$[0].stats.defense").doesNotExist())
+                .andExpect(jsonPath("$[0].skills").doesNotExist())
+                .andExpect(jsonPath("$[0].price").doesNotExist());
+    }
+
+    @Test
+    void shouldNegotiateBinaryFormats() throws Exception {
+        testPal.getSkills().add(createTestSkill(1L, "Fireball"));
+        when(palService.getAll()).thenReturn(List.of(testPal));
+
+        for (ObjectMapper binary : List.of(new CBORMapper(), new SmileMapper(), new ObjectMapper(new MessagePackFactory()))) {
+            String mediaType = switch (binary.getFactory().getFormatName()) {
+                case "CBOR" -> "application/cbor";
+                case "Smile" -> "application/x-jackson-smile";
+                default -> "application/vnd.msgpack";
+            };
+            byte[] body = mockMvc.perform(get("/pals").accept(mediaType))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(mediaType))
+                    .andExpect(header().string("Vary", "Accept"))
+                    .andReturn().getResponse().getContentAsByteArray();
+
+            JsonNode pals = binary.readTree(body);
+            assertThat(pals.get(0).get("name").asText()).isEqualTo("TestPal");
+            assertThat(pals.get(0).get("skills").get(0).get("name").asText()).isEqualTo("Fireball");
+        }
+    }
+
+    @Test
+    void shouldKeepJsonAsDefaultFormat() throws Exception {
+        when(palService.getById(1)).thenReturn(Optional.of(testPal));
+
+        mockMvc.perform(get("/pals/1").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void shouldFilterFieldsInBinaryFormats() throws Exception {
+        when(palService.getAll()).thenReturn(List.of(testPal));
+
+        byte[] body = mockMvc.perform(get("/pals").param("fields", "id,name").accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/cbor"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode pal = new CBORMapper().readTree(body).get(0);
+        assertThat(pal.get("name").asText()).isEqualTo("TestPal");
+        assertThat(pal.has("price")).isFalse();
+    }
+
+    @Test
+    void shouldReadBinaryRequestBody() throws Exception {
+        PalEntity newPal = createTestPal(138, "NewPal");
+        when(palService.save(any(PalEntity.class))).thenReturn(newPal);
+
+        mockMvc.perform(post("/pals")
+                        .contentType("application/vnd.msgpack")
+                        .content(new ObjectMapper(new MessagePackFactory()).writeValueAsBytes(newPal)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.name").value("NewPal"));
+
+        verify(palService).save(argThat(pal -> pal.getId() == 138 && pal.getName().equals("NewPal")));
+    }
+
+    @Test
+    void shouldGetPageWithNextLink() throws Exception {
+        when(palService.getPage(1, 2)).thenReturn(List.of(createTestPal(2, "Pal2"), createTestPal(3, "Pal3")));
+
+        mockMvc.perform(get("/pals").param("after", "1").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(2))
+                .andExpect(header().string("Link", "</pals?after=3&size=2>; rel=\"next\""));
+
+        verify(palService).getPage(1, 2);
+        verify(palService, never()).getAll();
+    }
+
+    @Test
+    void shouldOmitNextLinkOnLastPage() throws Exception {
+        when(palService.getPage(null, 10)).thenReturn(List.of(testPal));
+
+        mockMvc.perform(get("/pals").param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(header().doesNotExist("Link"));
+    }
+
+    @Test
+    void shouldStreamPalsAsNdjson() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<PalEntity> consumer = invocation.getArgument(1);
+            consumer.accept(testPal);
+            consumer.accept(createTestPal(2, "Pal2"));
+            return null;
+        }).when(palService).forEachPal(anyInt(), any());
+
+        MvcResult result = mockMvc.perform(get("/pals/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        assertThat(body.split("\n"))
+                .hasSize(2)
+                .allSatisfy(line -> assertThat(line).startsWith("{"));
+        assertThat(body).contains("\"name\":\"Pal2\"");
+    }
+
     @Test
     void shouldCreatePal() throws Exception {
         PalEntity newPal = createTestPal(138, "NewPal");
@@ -145,6 +327,81 @@ class PalControllerTest {
         verify(palService, never()).save(any());
     }
 
+    @Test
+    void shouldMergePatchPal() throws Exception {
+        PalEntity patched = createTestPal(1, "TestPal");
+        patched.setPrice(900);
+        when(palService.getById(1)).thenReturn(Optional.of(testPal));
+        when(palService.mergePatch(eq(1), any())).thenReturn(patched);
+
+        mockMvc.perform(patch("/pals/1")
+                        .contentType("application/merge-patch+json")
+                        .content("{\"price\": 900}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.price").value(900));
+
+        verify(palService).mergePatch(eq(1), argThat(node -> node.get("price").asInt() == 900));
+        verify(palService, never()).save(any());
+    }
+
+    @Test
+    void shouldJsonPatchPal() throws Exception {
+        when(palService.getById(1)).thenReturn(Optional.of(testPal));
+        when(palService.jsonPatch(eq(1), any())).thenReturn(testPal);
+
+        mockMvc.perform(patch("/pals/1")
+                        .contentType("application/json-patch+json")
+                        .content("[{\"op\": \"replace\", \"path\": \"/name\", \"value\": \"TestPal\"}]"))
+                .andExpect(status().isOk());
+
+        verify(palService).jsonPatch(eq(1), argThat(node -> node.isArray() && node.size() == 1));
+    }
+
+    @Test
+    void shouldReturn404WhenPatchingNonExistentPal() throws Exception {
+        when(palService.getById(999)).thenReturn(Optional.empty());
+
+        mockMvc.perform(patch("/pals/999")
+                        .contentType("application/merge-patch+json")
+                        .content("{\"price\": 900}"))
+                .andExpect(status().isNotFound());
+
+        verify(palService, never()).mergePatch(anyInt(), any());
+    }
+
+    @Test
+    void shouldCreatePalsInBatch() throws Exception {
+        List<PalEntity> pals = List.of(createTestPal(138, "NewPal"), createTestPal(1, "TestPal"));
+        when(palBatchService.createAll(anyList())).thenReturn(List.of(
+                new PalBatchResult(0, 138, PalBatchResult.Status.CREATED, null),
+                new PalBatchResult(1, 1, PalBatchResult.Status.FAILED, "Pal déjà existant : 1")));
+
+        mockMvc.perform(post("/pals/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(pals)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[1].status").value("FAILED"))
+                .andExpect(jsonPath("$[1].error").value("Pal déjà existant : 1"));
+
+        verify(palBatchService).createAll(argThat(list -> list.size() == 2));
+    }
+
+    @Test
+    void shouldUpdatePalsInBatch() throws Exception {
+        when(palBatchService.updateAll(anyList())).thenReturn(List.of(
+                new PalBatchResult(0, 1, PalBatchResult.Status.UPDATED, null)));
+
+        mockMvc.perform(put("/pals/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(testPal))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].status").value("UPDATED"));
+
+        verify(palService, never()).save(any());
+    }
+
     @Test
     void shouldDeletePal() throws Exception {
         doNothing().when(palService).deleteById(1);
@@ -155,6 +412,22 @@ class PalControllerTest {
         verify(palService).deleteById(1);
     }
 
+    @Test
+    void shouldDeleteWithIfMatchVersion() throws Exception {
+        mockMvc.perform(delete("/pals/1").header("If-Match", "\"1-4\""))
+                .andExpect(status().isNoContent());
+
+        verify(palService).deleteById(1, 4L);
+    }
+
+    @Test
+    void shouldRejectIfMatchOfAnotherPal() throws Exception {
+        mockMvc.perform(delete("/pals/1").header("If-Match", "\"2-4\""))
+                .andExpect(status().isPreconditionFailed());
+
+        verify(palService, never()).deleteById(anyInt());
+    }
+
     @Test
     void shouldGetSkills() throws Exception {
         PalSkillEntity skill = createTestSkill(1L, "Fireball");
@@ -209,7 +482,7 @@ class PalControllerTest {
                 .andExpect(jsonPath("$.id").doesNotExist())
                 .andExpect(jsonPath("$.type").value("water"));
 
-        verify(palService).addType(eq(1), anyString());
+        verify(palService).addType(1, "water");
     }
 
     @Test
@@ -229,14 +502,14 @@ class PalControllerTest {
         PalEntity pal2 = createTestPal(2, "RarePal");
         pal2.setRarity(5);
         List<PalEntity> sortedPals = List.of(pal2, pal1);
-        when(palService.getSortedByRarity(5)).thenReturn(sortedPals);
+        when(palService.getSortedByRarity(5, 0, null)).thenReturn(sortedPals);
 
         mockMvc.perform(get("/pals/sorted/rarity").param("limit", "5"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$[0].rarity").value(5));
 
-        verify(palService).getSortedByRarity(5);
+        verify(palService).getSortedByRarity(5, 0, null);
     }
 
     @Test
@@ -246,14 +519,130 @@ class PalControllerTest {
         PalEntity pal2 = createTestPal(2, "ExpensivePal");
         pal2.setPrice(1000);
         List<PalEntity> sortedPals = List.of(pal2, pal1);
-        when(palService.getSortedByPrice(5)).thenReturn(sortedPals);
+        when(palService.getSortedByPrice(5, 0, null)).thenReturn(sortedPals);
 
         mockMvc.perform(get("/pals/sorted/price").param("limit", "5"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$[0].price").value(1000));
 
-        verify(palService).getSortedByPrice(5);
+        verify(palService).getSortedByPrice(5, 0, null);
+    }
+
+    @Test
+    void shouldGetSortedByPriceWithPaging() throws Exception {
+        PalEntity pal = createTestPal(3, "NextPal");
+        when(palService.getSortedByPrice(2, 4, 7)).thenReturn(List.of(pal));
+
+        mockMvc.perform(get("/pals/sorted/price")
+                        .param("limit", "2")
+                        .param("offset", "4")
+                        .param("after", "7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(3));
+
+        verify(palService).getSortedByPrice(2, 4, 7);
+    }
+
+    @Test
+    void shouldFilterAndCountByTraits() throws Exception {
+        PalTraitFilter filter = new PalTraitFilter(List.of("fire"), false, List.of("dragon"), "kindling", 2);
+        when(palService.getByTraits(filter)).thenReturn(List.of(testPal));
+        when(palService.countByTraits(filter)).thenReturn(1);
+
+        mockMvc.perform(get("/pals/by-traits")
+                        .param("type", "fire")
+                        .param("excludeType", "dragon")
+                        .param("suitability", "kindling")
+                        .param("suitabilityMinLevel", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1));
+        mockMvc.perform(get("/pals/by-traits/count")
+                        .param("type", "fire")
+                        .param("excludeType", "dragon")
+                        .param("suitability", "kindling")
+                        .param("suitabilityMinLevel", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(1));
+        mockMvc.perform(get("/pals/by-traits/count").param("typeMatch", "some"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldSuggestPals() throws Exception {
+        when(palService.suggest("lamb", 5))
+                .thenReturn(List.of(new PalSuggestion(1, "Lamball", "001", PalSuggestion.Match.PREFIX, 0)));
+
+        mockMvc.perform(get("/pals/suggest").param("q", "lamb").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Lamball"))
+                .andExpect(jsonPath("$[0].match").value("PREFIX"));
+    }
+
+    @Test
+    void shouldSearchSkillsFullText() throws Exception {
+        PalSkillEntity skill = createTestSkill(1L, "flare_storm");
+        when(palService.searchSkills("burn", 20))
+                .thenReturn(List.of(new PalSkillSearchResult(1, "TestPal", 2.5,
+                        List.of(new PalSkillSearchResult.Hit(skill, 2.5)))));
+
+        mockMvc.perform(get("/pals/skills/search").param("q", "burn"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].skills[0].skill.name").value("flare_storm"));
+    }
+
+    @Test
+    void shouldGetBestPalsForSuitability() throws Exception {
+        when(palService.getBestFor("mining", 3)).thenReturn(List.of(testPal));
+
+        mockMvc.perform(get("/pals/best-for/mining").param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1));
+
+        verify(palService).getBestFor("mining", 3);
+    }
+
+    @Test
+    void shouldSearchPalsWithCriteriaAndPaging() throws Exception {
+        when(palService.search(any(), any())).thenReturn(new PageImpl<>(List.of(testPal), PageRequest.of(1, 10), 11));
+
+        mockMvc.perform(get("/pals/search")
+                        .param("type", "Fire", "dragon")
+                        .param("typeMatch", "all")
+                        .param("suitability", "kindling")
+                        .param("suitabilityMinLevel", "2")
+                        .param("priceMin", "1000")
+                        .param("stat", "hp:80..120", "defense:100..")
+                        .param("page", "1")
+                        .param("size", "10")
+                        .param("sort", "price,desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(1))
+                .andExpect(jsonPath("$.page.totalElements").value(11))
+                .andExpect(jsonPath("$.page.number").value(1));
+
+        ArgumentCaptor<PalSearchCriteria> criteria = ArgumentCaptor.forClass(PalSearchCriteria.class);
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(palService).search(criteria.capture(), pageable.capture());
+        assertThat(criteria.getValue().types()).containsExactly("fire", "dragon");
+        assertThat(criteria.getValue().allTypes()).isTrue();
+        assertThat(criteria.getValue().minSuitabilityLevel()).isEqualTo(2);
+        assertThat(criteria.getValue().price()).isEqualTo(new PalSearchCriteria.Range(1000, null));
+        assertThat(criteria.getValue().stats()).containsEntry("hp", new PalSearchCriteria.Range(80, 120))
+                .containsEntry("defense", new PalSearchCriteria.Range(100, null));
+        assertThat(pageable.getValue().getPageNumber()).isEqualTo(1);
+        assertThat(pageable.getValue().getSort()).isEqualTo(Sort.by(Sort.Direction.DESC, "price").and(Sort.by("id")));
+    }
+
+    @Test
+    void shouldRejectUnknownSearchStatOrSort() throws Exception {
+        mockMvc.perform(get("/pals/search").param("stat", "luck:1..2"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/pals/search").param("sort", "wiki"))
+                .andExpect(status().isBadRequest());
+
+        verify(palService, never()).search(any(), any());
     }
 
     // Méthodes utilitaires pour créer des entités de test
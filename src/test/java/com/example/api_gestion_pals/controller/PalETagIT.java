@@ -0,0 +1,130 @@
+package com.example.api_gestion_pals.controller;
+
+import com.example.api_gestion_pals.model.PalEntity;
+import com.example.api_gestion_pals.service.PalService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Sans @Transactional : la version n'est incrémentée et le catalogue rafraîchi qu'au commit
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PalETagIT {
+
+    private static final int PAL_ID = 900;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PalService palService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mockMvc.perform(post("/pals")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createTestPal("ETagPal"))))
+                .andExpect(status().isCreated());
+    }
+
+    @AfterEach
+    void tearDown() {
+        palService.deleteById(PAL_ID);
+    }
+
+    @Test
+    void shouldAnswerNotModifiedUntilPalOrChildrenChange() throws Exception {
+        String etag = etagOf("/pals/" + PAL_ID);
+
+        mockMvc.perform(get("/pals/{id}", PAL_ID).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        mockMvc.perform(post("/pals/{id}/types", PAL_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("\"water\""))
+                .andExpect(status().isCreated());
+
+        String afterChildChange = etagOf("/pals/" + PAL_ID);
+        assertThat(afterChildChange).isNotEqualTo(etag);
+        mockMvc.perform(get("/pals/{id}", PAL_ID).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.types[0].type").value("water"));
+    }
+
+    @Test
+    void shouldAnswerNotModifiedOnCatalogUntilAWriteIsCommitted() throws Exception {
+        String etag = etagOf("/pals");
+
+        mockMvc.perform(get("/pals").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(patch("/pals/{id}", PAL_ID)
+                        .contentType("application/merge-patch+json")
+                        .content("{\"price\": 900}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/pals").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+    }
+
+    @Test
+    void shouldRejectUpdateAndDeleteWithStaleIfMatch() throws Exception {
+        String etag = etagOf("/pals/" + PAL_ID);
+
+        mockMvc.perform(put("/pals/{id}", PAL_ID)
+                        .header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createTestPal("Renamed"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Renamed"));
+
+        mockMvc.perform(put("/pals/{id}", PAL_ID)
+                        .header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createTestPal("Stale"))))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(delete("/pals/{id}", PAL_ID).header(HttpHeaders.IF_MATCH, etag))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(delete("/pals/{id}", PAL_ID).header(HttpHeaders.IF_MATCH, etagOf("/pals/" + PAL_ID)))
+                .andExpect(status().isNoContent());
+    }
+
+    private String etagOf(String url) throws Exception {
+        String etag = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotBlank();
+        return etag;
+    }
+
+    private PalEntity createTestPal(String name) {
+        PalEntity pal = new PalEntity();
+        pal.setId(PAL_ID);
+        pal.setName(name);
+        pal.setPalKey(String.valueOf(PAL_ID));
+        pal.setRarity(1);
+        pal.setPrice(100);
+        return pal;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.api_gestion_pals.controller;
+
+import com.example.api_gestion_pals.model.PalEntity;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class PalListHttpMessageConverterTest {
+
+    private final ObjectMapper objectMapper = spy(new ObjectMapper());
+    private final PalListHttpMessageConverter converter = new PalListHttpMessageConverter(objectMapper);
+
+    @Test
+    void shouldWriteSameJsonAsJackson() throws Exception {
+        List<PalEntity> pals = List.of(pal(1, "Lamball"), pal(2, "Cattiva"));
+
+        MockHttpOutputMessage output = write(pals);
+
+        assertThat(output.getBodyAsString()).isEqualTo(new ObjectMapper().writeValueAsString(pals));
+        assertThat(output.getHeaders().getContentLength()).isEqualTo(output.getBodyAsBytes().length);
+        assertThat(write(List.of()).getBodyAsString()).isEqualTo("[]");
+    }
+
+    @Test
+    void shouldSerializeOnlyChangedPals() throws Exception {
+        PalEntity lamball = pal(1, "Lamball");
+        PalEntity cattiva = pal(2, "Cattiva");
+        write(List.of(lamball, cattiva));
+
+        // Une écriture remplace l'instance du pal modifié dans le catalogue
+        PalEntity renamed = pal(2, "Cattiva Alpha");
+        MockHttpOutputMessage output = write(List.of(lamball, renamed));
+
+        verify(objectMapper, times(1)).writeValueAsBytes(lamball);
+        verify(objectMapper, times(1)).writeValueAsBytes(renamed);
+        assertThat(output.getBodyAsString()).contains("Cattiva Alpha").doesNotContain("\"Cattiva\"");
+    }
+
+    @Test
+    void shouldDropFragmentsOfForgottenPals() throws Exception {
+        PalEntity lamball = pal(1, "Lamball");
+        PalEntity cattiva = pal(2, "Cattiva");
+        write(List.of(lamball, cattiva));
+
+        converter.forget(Set.of(2));
+        write(List.of(lamball, cattiva));
+
+        verify(objectMapper, times(1)).writeValueAsBytes(lamball);
+        verify(objectMapper, times(2)).writeValueAsBytes(cattiva);
+    }
+
+    private MockHttpOutputMessage write(List<PalEntity> pals) throws Exception {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(new PalList(pals), MediaType.APPLICATION_JSON, output);
+        return output;
+    }
+
+    private static PalEntity pal(int id, String name) {
+        PalEntity pal = new PalEntity();
+        pal.setId(id);
+        pal.setName(name);
+        return pal;
+    }
+}
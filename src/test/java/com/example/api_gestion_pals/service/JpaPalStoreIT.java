@@ -0,0 +1,75 @@
+package com.example.api_gestion_pals.service;
+
+import com.example.api_gestion_pals.model.PalEntity;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class JpaPalStoreIT {
+
+    private static final int WRITERS = 8;
+
+    @Autowired
+    private PalService palService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Plusieurs PUT du même pal : le flush de la mise à jour perdante doit remonter en conflit (409), pas en 500
+    @Test
+    void shouldTranslateConcurrentUpdatesToOptimisticLockingFailures() throws Exception {
+        PalEntity original = palService.getById(1).orElseThrow();
+        int originalPrice = original.getPrice();
+        List<Callable<Integer>> writes = new ArrayList<>();
+        for (int i = 1; i <= WRITERS; i++) {
+            int price = 9000 + i;
+            writes.add(() -> {
+                PalEntity update = copyWithoutVersion(original);
+                update.setPrice(price);
+                return palService.save(update).getPrice();
+            });
+        }
+
+        int succeeded = 0;
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        try {
+            for (Future<Integer> write : executor.invokeAll(writes, 30, TimeUnit.SECONDS)) {
+                try {
+                    assertThat(write.get()).isGreaterThan(9000);
+                    succeeded++;
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(OptimisticLockingFailureException.class);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            PalEntity restore = copyWithoutVersion(original);
+            restore.setPrice(originalPrice);
+            palService.save(restore);
+        }
+        assertThat(succeeded).isPositive();
+    }
+
+    // Corps d'un PUT sans If-Match : les pals du catalogue sont partagés, on n'y touche pas
+    private PalEntity copyWithoutVersion(PalEntity pal) {
+        PalEntity copy = objectMapper.convertValue(pal, PalEntity.class);
+        copy.setVersion(null);
+        return copy;
+    }
+}
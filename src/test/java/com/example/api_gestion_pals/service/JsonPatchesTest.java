@@ -0,0 +1,52 @@
+package com.example.api_gestion_pals.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JsonPatchesTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void shouldApplyMergePatch() throws Exception {
+        JsonNode target = json("{'name':'Lamball','price':100,'stats':{'hp':70,'food':2},'wiki':'url'}");
+
+        JsonNode result = JsonPatches.mergePatch(target, json("{'price':500,'stats':{'hp':80},'wiki':null}"));
+
+        assertThat(result).isEqualTo(json("{'name':'Lamball','price':500,'stats':{'hp':80,'food':2}}"));
+        assertThat(target.get("price").asInt()).isEqualTo(100);
+    }
+
+    @Test
+    void shouldApplyJsonPatchOperations() throws Exception {
+        JsonNode target = json("{'name':'Lamball','skills':[{'name':'Roly Poly'},{'name':'Air Cannon'}],'types':[]}");
+
+        JsonNode result = JsonPatches.jsonPatch(target, json("""
+                [{'op':'test','path':'/name','value':'Lamball'},
+                 {'op':'replace','path':'/skills/1/name','value':'Power Shot'},
+                 {'op':'add','path':'/types/-','value':{'type':'neutral'}},
+                 {'op':'remove','path':'/skills/0'},
+                 {'op':'copy','from':'/name','path':'/palKey'}]"""));
+
+        assertThat(result).isEqualTo(json(
+                "{'name':'Lamball','skills':[{'name':'Power Shot'}],'types':[{'type':'neutral'}],'palKey':'Lamball'}"));
+    }
+
+    @Test
+    void shouldRejectFailedTestAndUnknownPath() throws Exception {
+        JsonNode target = json("{'name':'Lamball'}");
+
+        assertThatThrownBy(() -> JsonPatches.jsonPatch(target, json("[{'op':'test','path':'/name','value':'Other'}]")))
+                .isInstanceOf(InvalidPatchException.class);
+        assertThatThrownBy(() -> JsonPatches.jsonPatch(target, json("[{'op':'remove','path':'/skills/0'}]")))
+                .isInstanceOf(InvalidPatchException.class);
+    }
+
+    private JsonNode json(String content) throws Exception {
+        return objectMapper.readTree(content.replace('\'', '"'));
+    }
+}
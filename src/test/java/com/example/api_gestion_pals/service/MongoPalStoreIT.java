@@ -0,0 +1,234 @@
+package com.example.api_gestion_pals.service;
+
+import com.example.api_gestion_pals.DAO.PalSearchCriteria;
+import com.example.api_gestion_pals.model.*;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Profil mongo de bout en bout sur un serveur MongoDB en mémoire (mongo-java-server, sans Docker) :
+ * écritures de PalService, lots, ids des enfants et recherche.
+ */
+@SpringBootTest
+@ActiveProfiles({"test", "mongo"})
+class MongoPalStoreIT {
+
+    private static final MongoServer MONGO = new MongoServer(new MemoryBackend());
+
+    @DynamicPropertySource
+    static void mongoUri(DynamicPropertyRegistry registry) {
+        String uri = MONGO.bindAndGetConnectionString() + "/pals";
+        registry.add("spring.data.mongodb.uri", () -> uri);
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        MONGO.shutdownNow();
+    }
+
+    @Autowired
+    private PalStore palStore;
+
+    @Autowired
+    private PalService palService;
+
+    @Autowired
+    private PalBatchService palBatchService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        for (int id = 5000; id < 5010; id++) {
+            palService.deleteById(id);
+        }
+    }
+
+    @Test
+    void shouldUseDocumentStoreWithIndexes() {
+        assertThat(palStore).isInstanceOf(MongoPalStore.class);
+        assertThat(mongoTemplate.indexOps("pals").getIndexInfo())
+                .extracting(IndexInfo::getName)
+                .contains("idx_pals_name", "idx_pals_types", "idx_pals_suitability_type_level");
+    }
+
+    @Test
+    void shouldCreateAndUpdateWholeDocument() {
+        palService.save(createTestPal(5000, "mongotype", 3));
+
+        PalEntity stored = palStore.findById(5000).orElseThrow();
+        assertThat(stored.getVersion()).isZero();
+        assertThat(stored.getSkills()).extracting(PalSkillEntity::getId).containsExactly(1L, 2L);
+        assertThat(stored.getStats().getHp()).isEqualTo(80);
+
+        PalEntity update = createTestPal(5000, "mongotype", 3);
+        update.setPrice(900);
+        update.setStats(null);
+        update.setVersion(0L);
+        palService.save(update);
+
+        PalEntity updated = palStore.findById(5000).orElseThrow();
+        assertThat(updated.getPrice()).isEqualTo(900);
+        // Des stats absentes sont conservées, comme en JPA
+        assertThat(updated.getStats().getHp()).isEqualTo(80);
+        assertThat(updated.getVersion()).isEqualTo(1L);
+        assertThat(palService.getById(5000)).get().extracting(PalEntity::getPrice).isEqualTo(900);
+    }
+
+    @Test
+    void shouldRejectStaleVersions() {
+        palService.save(createTestPal(5001, "mongotype", 3));
+        PalEntity stale = createTestPal(5001, "mongotype", 3);
+        stale.setVersion(7L);
+
+        assertThatThrownBy(() -> palService.save(stale)).isInstanceOf(PalVersionMismatchException.class);
+        assertThatThrownBy(() -> palService.deleteById(5001, 7L)).isInstanceOf(PalVersionMismatchException.class);
+
+        palService.deleteById(5001, 0L);
+        assertThat(palStore.existsById(5001)).isFalse();
+    }
+
+    @Test
+    void shouldModifyChildrenAndBumpVersion() {
+        palService.save(createTestPal(5002, "mongotype", 3));
+        PalSkillEntity skill = new PalSkillEntity();
+        skill.setName("added");
+        skill.setLevel(5);
+
+        PalSkillEntity added = palService.addSkill(5002, skill);
+        palService.removeType(5002, 1L);
+
+        assertThat(added.getId()).isNotIn(1L, 2L);
+        PalEntity stored = palStore.findById(5002).orElseThrow();
+        assertThat(stored.getSkills()).extracting(PalSkillEntity::getName).containsExactly("skill0", "skill1", "added");
+        assertThat(stored.getSkills()).extracting(PalSkillEntity::getId).containsExactly(1L, 2L, added.getId());
+        assertThat(stored.getTypes()).isEmpty();
+        assertThat(stored.getVersion()).isEqualTo(2L);
+    }
+
+    @Test
+    void shouldKeepChildIdsWhenEarlierChildrenAreRemoved() {
+        PalEntity pal = createTestPal(5008, "mongotype", 3);
+        PalTypeEntity second = new PalTypeEntity();
+        second.setType("second");
+        PalTypeEntity third = new PalTypeEntity();
+        third.setType("third");
+        pal.getTypes().addAll(List.of(second, third));
+        PalSkillEntity last = new PalSkillEntity();
+        last.setName("skill2");
+        last.setLevel(2);
+        pal.getSkills().add(last);
+        palService.save(pal);
+
+        // Type du milieu retiré : le suivant garde l'id 3 et reste adressable
+        palService.removeType(5008, 2L);
+        assertThat(palService.getTypes(5008)).extracting(PalTypeEntity::getId).containsExactly(1L, 3L);
+        palService.removeType(5008, 3L);
+        assertThat(palService.getTypes(5008)).extracting(PalTypeEntity::getType).containsExactly("mongotype");
+
+        // Compétence du milieu retirée par un PUT sans ids : les autres sont reconnues par nom et niveau
+        PalEntity update = createTestPal(5008, "mongotype", 3);
+        update.getSkills().remove(1);
+        PalSkillEntity kept = new PalSkillEntity();
+        kept.setName("skill2");
+        kept.setLevel(2);
+        update.getSkills().add(kept);
+        palService.save(update);
+        PalSkillEntity renamed = new PalSkillEntity();
+        renamed.setName("renamed");
+        renamed.setLevel(2);
+        palService.modifySkill(5008, 3L, renamed);
+
+        assertThat(palStore.findById(5008).orElseThrow().getSkills())
+                .extracting(PalSkillEntity::getId, PalSkillEntity::getName)
+                .containsExactly(tuple(1L, "skill0"), tuple(3L, "renamed"));
+        assertThatThrownBy(() -> palService.removeType(5008, 2L)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldSearchWithSameSemanticsAsJpa() {
+        palService.save(createTestPal(5003, "mongotype", 1));
+        palService.save(createTestPal(5004, "mongotype", 3));
+        palService.save(createTestPal(5005, "othertype", 3));
+
+        PalSearchCriteria criteria = new PalSearchCriteria(List.of("mongotype"), false, "mongowork", 2,
+                null, null, Map.of("hp", PalSearchCriteria.Range.parse("50..")));
+        Page<PalEntity> page = palStore.search(criteria, PageRequest.of(0, 10, Sort.by("id")));
+
+        assertThat(page.getTotalElements()).isEqualTo(1);
+        assertThat(page.getContent()).extracting(PalEntity::getId).containsExactly(5004);
+    }
+
+    @Test
+    void shouldWriteBatchesInBulk() {
+        List<PalBatchResult> created = palBatchService.createAll(List.of(
+                createTestPal(5006, "mongotype", 1), createTestPal(5007, "mongotype", 1)));
+        PalEntity stale = createTestPal(5006, "mongotype", 2);
+        stale.setVersion(3L);
+        PalEntity fresh = createTestPal(5007, "mongotype", 2);
+        fresh.setVersion(0L);
+
+        List<PalBatchResult> updated = palBatchService.updateAll(List.of(stale, fresh));
+
+        assertThat(created).extracting(PalBatchResult::status)
+                .containsOnly(PalBatchResult.Status.CREATED);
+        assertThat(updated).extracting(PalBatchResult::status)
+                .containsExactly(PalBatchResult.Status.FAILED, PalBatchResult.Status.UPDATED);
+        assertThat(palStore.findById(5007).orElseThrow().getSuitabilities().get(0).getLevel()).isEqualTo(2);
+    }
+
+    private PalEntity createTestPal(int id, String type, int suitabilityLevel) {
+        PalEntity pal = new PalEntity();
+        pal.setId(id);
+        pal.setName("MongoPal" + id);
+        pal.setPalKey(String.valueOf(id));
+        pal.setRarity(1);
+        pal.setPrice(100);
+        pal.setTypes(new ArrayList<>());
+        pal.setSkills(new ArrayList<>());
+        pal.setSuitabilities(new ArrayList<>());
+
+        PalTypeEntity palType = new PalTypeEntity();
+        palType.setType(type);
+        pal.getTypes().add(palType);
+
+        for (int i = 0; i < 2; i++) {
+            PalSkillEntity skill = new PalSkillEntity();
+            skill.setName("skill" + i);
+            skill.setLevel(i);
+            pal.getSkills().add(skill);
+        }
+
+        PalSuitabilityEntity suitability = new PalSuitabilityEntity();
+        suitability.setType("mongowork");
+        suitability.setLevel(suitabilityLevel);
+        pal.getSuitabilities().add(suitability);
+
+        PalStatEntity stats = new PalStatEntity();
+        stats.setHp(80);
+        pal.setStats(stats);
+        return pal;
+    }
+}
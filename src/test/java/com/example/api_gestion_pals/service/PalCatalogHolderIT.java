@@ -0,0 +1,56 @@
+package com.example.api_gestion_pals.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Pool de deux connexions : plus d'écritures simultanées que de connexions, chacune suivie de la relecture du catalogue
+@SpringBootTest(properties = {
+        "spring.datasource.hikari.maximum-pool-size=2",
+        "spring.datasource.hikari.connection-timeout=2000"})
+@ActiveProfiles("test")
+class PalCatalogHolderIT {
+
+    private static final int WRITERS = 8;
+
+    @Autowired
+    private PalService palService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void shouldRefreshCatalogWhenWritersOutnumberConnections() throws Exception {
+        List<Callable<Integer>> writes = new ArrayList<>();
+        for (int id = 1; id <= WRITERS; id++) {
+            int palId = id;
+            writes.add(() -> palService.mergePatch(palId, objectMapper.readTree("{\"price\": " + (9000 + palId) + "}"))
+                    .getPrice());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        try {
+            for (Future<Integer> write : executor.invokeAll(writes, 30, TimeUnit.SECONDS)) {
+                assertThat(write.get()).isGreaterThan(9000);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (int id = 1; id <= WRITERS; id++) {
+            assertThat(palService.getById(id)).get().extracting(pal -> pal.getPrice()).isEqualTo(9000 + id);
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.example.api_gestion_pals.service;
+
+import com.example.api_gestion_pals.model.PalEntity;
+import com.example.api_gestion_pals.model.PalSkillEntity;
+import com.example.api_gestion_pals.model.PalStatEntity;
+import com.example.api_gestion_pals.model.PalSuitabilityEntity;
+import com.example.api_gestion_pals.model.PalTypeEntity;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PalCatalogTest {
+
+    @Test
+    void shouldIndexPalsByIdNameAndType() {
+        PalCatalog catalog = PalCatalog.of(List.of(
+                createTestPal(7, "Foxparks", "fire"),
+                createTestPal(3, "Lamball", "neutral"),
+                createTestPal(5, "Arsox", "FIRE")));
+
+        assertThat(catalog.size()).isEqualTo(3);
+        assertThat(catalog.findById(5)).get().extracting(PalEntity::getName).isEqualTo("Arsox");
+        assertThat(catalog.findById(4)).isEmpty();
+        assertThat(catalog.findByName("LAMBALL")).get().extracting(PalEntity::getId).isEqualTo(3);
+        assertThat(catalog.findByType("Fire")).extracting(PalEntity::getId).containsExactly(5, 7);
+        assertThat(catalog.findByType("water")).isEmpty();
+        assertThat(catalog.findAll()).extracting(PalEntity::getId).containsExactly(3, 5, 7);
+    }
+
+    @Test
+    void shouldCopyEntitiesIntoUnmodifiableGraph() {
+        PalEntity source = createTestPal(1, "Lamball", "neutral");
+        PalCatalog catalog = PalCatalog.of(List.of(source));
+
+        source.setName("Changed");
+        source.getTypes().clear();
+        PalEntity cached = catalog.findById(1).orElseThrow();
+
+        assertThat(cached.getName()).isEqualTo("Lamball");
+        assertThat(cached.getTypes()).hasSize(1);
+        assertThatThrownBy(() -> cached.getTypes().clear()).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void shouldSortByRarityWithIdTieBreakAndPage() {
+        PalCatalog catalog = PalCatalog.of(List.of(
+                createTestPal(1, "A", 1, 100),
+                createTestPal(2, "B", 5, 100),
+                createTestPal(3, "C", 5, 100),
+                createTestPal(4, "D", null, 100),
+                createTestPal(5, "E", 3, 100)));
+
+        assertThat(catalog.sortedByRarity(10, 0, null)).extracting(PalEntity::getId).containsExactly(2, 3, 5, 1, 4);
+        assertThat(catalog.sortedByRarity(2, 1, null)).extracting(PalEntity::getId).containsExactly(3, 5);
+        assertThat(catalog.sortedByRarity(2, 0, 3)).extracting(PalEntity::getId).containsExactly(5, 1);
+        assertThat(catalog.sortedByRarity(2, 0, 42)).isEmpty();
+        assertThat(catalog.sortedByRarity(2, 10, null)).isEmpty();
+    }
+
+    @Test
+    void shouldReplaceAddAndRemoveWithoutTouchingPreviousSnapshot() {
+        PalCatalog initial = PalCatalog.of(List.of(
+                createTestPal(1, "Lamball", "neutral"),
+                createTestPal(3, "Foxparks", "fire")));
+
+        PalCatalog renamed = initial.with(createTestPal(1, "Cattiva", "neutral"));
+        PalCatalog added = renamed.with(createTestPal(2, "Chikipi", "fire"));
+        PalCatalog removed = added.without(3);
+
+        assertThat(initial.findByName("Lamball")).isPresent();
+        assertThat(renamed.findByName("Lamball")).isEmpty();
+        assertThat(renamed.findByName("Cattiva")).isPresent();
+        assertThat(added.findByType("fire")).extracting(PalEntity::getId).containsExactly(2, 3);
+        assertThat(removed.findAll()).extracting(PalEntity::getId).containsExactly(1, 2);
+        assertThat(removed.findByType("fire")).extracting(PalEntity::getId).containsExactly(2);
+        assertThat(removed.generation()).isGreaterThan(added.generation());
+    }
+
+    @Test
+    void shouldApplySeveralChangesInOneSnapshot() {
+        PalCatalog initial = PalCatalog.of(List.of(
+                createTestPal(1, "Lamball", "neutral"),
+                createTestPal(3, "Foxparks", "fire")));
+
+        PalCatalog changed = initial.withChanges(
+                List.of(createTestPal(1, "Cattiva", "neutral"), createTestPal(2, "Chikipi", "fire")),
+                List.of(3, 42));
+
+        assertThat(changed.findAll()).extracting(PalEntity::getName).containsExactly("Cattiva", "Chikipi");
+        assertThat(changed.findByType("fire")).extracting(PalEntity::getId).containsExactly(2);
+        assertThat(changed.generation()).isEqualTo(initial.generation() + 1);
+        assertThat(initial.findAll()).extracting(PalEntity::getId).containsExactly(1, 3);
+    }
+
+    @Test
+    void shouldCombineTypeAndSuitabilityBitmaps() {
+        List<PalEntity> pals = new ArrayList<>();
+        for (int id = 1; id <= 130; id++) {
+            PalEntity pal = createTestPal(id, "Pal" + id, id % 2 == 0 ? "fire" : "water");
+            if (id % 3 == 0) {
+                addType(pal, "dragon");
+            }
+            addSuitability(pal, "kindling", id % 4);
+            pals.add(pal);
+        }
+        PalCatalog catalog = PalCatalog.of(pals);
+
+        PalTraitFilter fireKindling2 = new PalTraitFilter(List.of("FIRE"), false, List.of(), "kindling", 2);
+        PalTraitFilter fireAndDragon = new PalTraitFilter(List.of("fire", "dragon"), true, List.of(), null, 1);
+        PalTraitFilter notDragon = new PalTraitFilter(List.of("fire", "water"), false, List.of("dragon"), null, 1);
+
+        // pairs avec id % 4 == 2 (niveau 2) ; id % 4 == 3 est impair
+        assertThat(catalog.findMatching(fireKindling2)).extracting(PalEntity::getId)
+                .allMatch(id -> id % 4 == 2).hasSize(33);
+        assertThat(catalog.countMatching(fireKindling2)).isEqualTo(33);
+        assertThat(catalog.findMatching(fireAndDragon)).extracting(PalEntity::getId)
+                .startsWith(6, 12, 18).allMatch(id -> id % 6 == 0);
+        assertThat(catalog.countMatching(notDragon)).isEqualTo(130 - 43);
+        assertThat(catalog.countMatching(new PalTraitFilter(List.of(), false, List.of(), "kindling", 4))).isZero();
+        assertThat(catalog.countMatching(new PalTraitFilter(List.of(), false, List.of(), null, 1))).isEqualTo(130);
+        assertThat(catalog.without(2).countMatching(fireKindling2)).isEqualTo(32);
+    }
+
+    @Test
+    void shouldRankBestPalsForSuitabilityAndKeepRankingUpToDate() {
+        PalEntity miner = withStats(createTestPal(1, "Miner", "ground"), 5, 100);
+        PalEntity hungryMiner = withStats(createTestPal(2, "Hungry", "ground"), 8, 100);
+        PalEntity slowMiner = withStats(createTestPal(3, "Slow", "ground"), 5, 50);
+        PalEntity expert = withStats(createTestPal(4, "Expert", "ground"), 9, 10);
+        addSuitability(miner, "mining", 2);
+        addSuitability(hungryMiner, "mining", 2);
+        addSuitability(slowMiner, "Mining", 2);
+        addSuitability(expert, "mining", 4);
+        addSuitability(expert, "kindling", 1);
+        PalCatalog catalog = PalCatalog.of(List.of(miner, hungryMiner, slowMiner, expert));
+
+        assertThat(catalog.bestFor("MINING", 10)).extracting(PalEntity::getId).containsExactly(4, 1, 3, 2);
+        assertThat(catalog.bestFor("mining", 2)).extracting(PalEntity::getId).containsExactly(4, 1);
+        assertThat(catalog.bestFor("watering", 10)).isEmpty();
+
+        PalEntity promoted = withStats(createTestPal(3, "Slow", "ground"), 5, 50);
+        addSuitability(promoted, "mining", 3);
+        PalEntity newcomer = withStats(createTestPal(5, "Newcomer", "ground"), 1, 1);
+        addSuitability(newcomer, "mining", 2);
+        PalCatalog changed = catalog.with(promoted).with(newcomer).without(4);
+
+        assertThat(changed.bestFor("mining", 10)).extracting(PalEntity::getId).containsExactly(3, 5, 1, 2);
+        assertThat(changed.bestFor("kindling", 10)).isEmpty();
+        assertThat(changed.bestFor("mining", 10)).extracting(PalEntity::getId)
+                .isEqualTo(PalCatalog.of(changed.findAll()).bestFor("mining", 10).stream().map(PalEntity::getId).toList());
+        assertThat(catalog.bestFor("mining", 10)).extracting(PalEntity::getId).containsExactly(4, 1, 3, 2);
+    }
+
+    @Test
+    void shouldSuggestByPrefixWordAndTypo() {
+        PalCatalog catalog = PalCatalog.of(List.of(
+                createTestPal(1, "Lamball", "neutral"),
+                createTestPal(2, "Foxparks", "fire"),
+                createTestPal(3, "Jolthog", "electric"),
+                createTestPal(4, "Jolthog Cryst", "ice"),
+                createTestPal(5, "Mau Cryst", "ice")));
+
+        assertThat(catalog.suggest("jolt", 10)).extracting(PalSuggestion::id).containsExactly(3, 4);
+        assertThat(catalog.suggest("Jolthog", 10)).extracting(PalSuggestion::match)
+                .containsExactly(PalSuggestion.Match.EXACT, PalSuggestion.Match.PREFIX);
+        assertThat(catalog.suggest("cryst", 10)).extracting(PalSuggestion::id).containsExactly(5, 4);
+        assertThat(catalog.suggest("cryst", 1)).hasSize(1);
+        assertThat(catalog.suggest("002", 10)).extracting(PalSuggestion::name).containsExactly("Foxparks");
+        assertThat(catalog.suggest("lanbal", 10)).singleElement()
+                .satisfies(suggestion -> {
+                    assertThat(suggestion.id()).isEqualTo(1);
+                    assertThat(suggestion.match()).isEqualTo(PalSuggestion.Match.FUZZY);
+                    assertThat(suggestion.distance()).isEqualTo(1);
+                });
+        assertThat(catalog.suggest("fxoparks", 10)).extracting(PalSuggestion::id).containsExactly(2);
+        assertThat(catalog.suggest("zzz", 10)).isEmpty();
+    }
+
+    @Test
+    void shouldUpdateSuggestionsWhenPalsAreRenamedOrRemoved() {
+        PalCatalog catalog = PalCatalog.of(List.of(
+                createTestPal(1, "Lamball", "neutral"),
+                createTestPal(2, "Foxparks", "fire")));
+
+        PalCatalog changed = catalog.with(createTestPal(1, "Cattiva", "neutral"))
+                .with(createTestPal(3, "Lamballa", "neutral"))
+                .without(2);
+
+        assertThat(changed.suggest("lamb", 10)).extracting(PalSuggestion::id).containsExactly(3);
+        assertThat(changed.suggest("catt", 10)).extracting(PalSuggestion::id).containsExactly(1);
+        assertThat(changed.suggest("foxp", 10)).isEmpty();
+        assertThat(catalog.suggest("lamb", 10)).extracting(PalSuggestion::id).containsExactly(1);
+    }
+
+    @Test
+    void shouldSearchSkillsWithBm25AndGroupByPal() {
+        PalEntity foxparks = createTestPal(1, "Foxparks", "fire");
+        addSkill(foxparks, "ignis_blast", "fire", "Hurls a ball of fire straight at an enemy.");
+        addSkill(foxparks, "flare_storm", "fire", "Creates burning tornadoes. Burning foes take fire damage.");
+        PalEntity pengullet = createTestPal(2, "Pengullet", "water");
+        addSkill(pengullet, "ice_shield", "ice", "Raises a shield of ice that blocks a short distance.");
+        PalEntity lamball = createTestPal(3, "Lamball", "neutral");
+        addSkill(lamball, "roly_poly", "neutral", "Rolls a short distance while burning nothing.");
+        PalCatalog catalog = PalCatalog.of(List.of(foxparks, pengullet, lamball));
+
+        List<PalSkillSearchResult> burn = catalog.searchSkills("burn", 10);
+        assertThat(burn).extracting(PalSkillSearchResult::id).containsExactly(1, 3);
+        assertThat(burn.get(0).skills()).extracting(hit -> hit.skill().getName()).containsExactly("flare_storm");
+
+        assertThat(catalog.searchSkills("shields", 10)).extracting(PalSkillSearchResult::id).containsExactly(2);
+        assertThat(catalog.searchSkills("ignis", 10)).extracting(PalSkillSearchResult::id).containsExactly(1);
+        assertThat(catalog.searchSkills("\"short distance\"", 10)).extracting(PalSkillSearchResult::id)
+                .containsExactlyInAnyOrder(2, 3);
+        assertThat(catalog.searchSkills("\"distance short\"", 10)).isEmpty();
+        assertThat(catalog.searchSkills("the", 10)).isEmpty();
+
+        PalEntity renamed = createTestPal(2, "Pengullet", "water");
+        addSkill(renamed, "ice_missile", "ice", "Fires icicles at an enemy.");
+        PalCatalog changed = catalog.with(renamed).without(3);
+        assertThat(changed.searchSkills("shield", 10)).isEmpty();
+        assertThat(changed.searchSkills("icicle", 10)).extracting(PalSkillSearchResult::id).containsExactly(2);
+        assertThat(changed.searchSkills("burn", 10)).extracting(PalSkillSearchResult::id).containsExactly(1);
+    }
+
+    private PalEntity createTestPal(Integer id, String name, String type) {
+        PalEntity pal = createTestPal(id, name, 1, 100);
+        PalTypeEntity typeEntity = new PalTypeEntity();
+        typeEntity.setType(type);
+        typeEntity.setPal(pal);
+        pal.getTypes().add(typeEntity);
+        return pal;
+    }
+
+    private PalEntity withStats(PalEntity pal, int food, int walkSpeed) {
+        PalStatEntity stats = new PalStatEntity();
+        stats.setFood(food);
+        stats.setWalkSpeed(walkSpeed);
+        stats.setPal(pal);
+        pal.setStats(stats);
+        return pal;
+    }
+
+    private void addSkill(PalEntity pal, String name, String type, String description) {
+        PalSkillEntity skill = new PalSkillEntity();
+        skill.setName(name);
+        skill.setType(type);
+        skill.setLevel(1);
+        skill.setDescription(description);
+        skill.setPal(pal);
+        pal.getSkills().add(skill);
+    }
+
+    private void addType(PalEntity pal, String type) {
+        PalTypeEntity typeEntity = new PalTypeEntity();
+        typeEntity.setType(type);
+        typeEntity.setPal(pal);
+        pal.getTypes().add(typeEntity);
+    }
+
+    private void addSuitability(PalEntity pal, String type, int level) {
+        if (level == 0) {
+            return;
+        }
+        PalSuitabilityEntity suitability = new PalSuitabilityEntity();
+        suitability.setType(type);
+        suitability.setLevel(level);
+        suitability.setPal(pal);
+        pal.getSuitabilities().add(suitability);
+    }
+
+    private PalEntity createTestPal(Integer id, String name, Integer rarity, Integer price) {
+        PalEntity pal = new PalEntity();
+        pal.setId(id);
+        pal.setName(name);
+        pal.setPalKey(String.format("%03d", id));
+        pal.setRarity(rarity);
+        pal.setPrice(price);
+        pal.setTypes(new ArrayList<>());
+        pal.setSkills(new ArrayList<>());
+        pal.setSuitabilities(new ArrayList<>());
+        return pal;
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.api_gestion_pals.service;
+
+import com.example.api_gestion_pals.model.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class PalServiceIT {
+
+    private static final int SKILLS = 10;
+
+    @Autowired
+    private PalService palService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        palService.save(createTestPal(500));
+        entityManager.clear();
+    }
+
+    @Test
+    void shouldNotRewriteChildrenWhenUpdateChangesNothing() {
+        statistics.clear();
+
+        palService.save(createTestPal(500));
+
+        // Avant la fusion : 12 DELETE + 12 INSERT (10 skills, 1 type, 1 suitability) à chaque PUT
+        assertThat(statistics.getEntityDeleteCount()).isZero();
+        assertThat(statistics.getEntityInsertCount()).isZero();
+        assertThat(statistics.getEntityUpdateCount()).isZero();
+    }
+
+    @Test
+    void shouldWriteOnlyChangedChildren() {
+        PalEntity update = createTestPal(500);
+        update.getSkills().get(0).setPower(99);
+        update.getTypes().get(0).setType("water");
+        statistics.clear();
+
+        palService.save(update);
+
+        assertThat(updates(PalSkillEntity.class)).isEqualTo(1);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(1);
+        assertThat(statistics.getEntityDeleteCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldWriteOnlyPatchedFields() throws Exception {
+        statistics.clear();
+
+        PalEntity patched = palService.mergePatch(500, objectMapper.readTree("{\"price\": 900}"));
+
+        assertThat(patched.getPrice()).isEqualTo(900);
+        assertThat(patched.getSkills()).hasSize(SKILLS);
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(1);
+        assertThat(statistics.getEntityInsertCount()).isZero();
+        assertThat(statistics.getEntityDeleteCount()).isZero();
+    }
+
+    @Test
+    void shouldRenameSkillInPlaceWithJsonPatch() throws Exception {
+        Long skillId = palService.getSkills(500).get(3).getId();
+        statistics.clear();
+
+        PalEntity patched = palService.jsonPatch(500, objectMapper.readTree(
+                "[{\"op\": \"replace\", \"path\": \"/skills/3/name\", \"value\": \"renamed\"}]"));
+
+        // Apparié par id : le skill renommé est mis à jour, pas supprimé puis recréé
+        assertThat(patched.getSkills()).filteredOn(skill -> skill.getId().equals(skillId))
+                .extracting(PalSkillEntity::getName).containsExactly("renamed");
+        assertThat(updates(PalSkillEntity.class)).isEqualTo(1);
+        assertThat(statistics.getEntityInsertCount()).isZero();
+        assertThat(statistics.getEntityDeleteCount()).isZero();
+    }
+
+    private long updates(Class<?> entity) {
+        return statistics.getEntityStatistics(entity.getName()).getUpdateCount();
+    }
+
+    private PalEntity createTestPal(int id) {
+        PalEntity pal = new PalEntity();
+        pal.setId(id);
+        pal.setName("MergePal");
+        pal.setPalKey(String.valueOf(id));
+        pal.setRarity(1);
+        pal.setPrice(100);
+        pal.setTypes(new ArrayList<>());
+        pal.setSkills(new ArrayList<>());
+        pal.setSuitabilities(new ArrayList<>());
+
+        PalTypeEntity type = new PalTypeEntity();
+        type.setType("fire");
+        pal.getTypes().add(type);
+
+        for (int i = 0; i < SKILLS; i++) {
+            PalSkillEntity skill = new PalSkillEntity();
+            skill.setName("skill" + i);
+            skill.setLevel(i);
+            skill.setType("fire");
+            skill.setPower(10);
+            skill.setCooldown(1);
+            skill.setDescription("Test skill");
+            pal.getSkills().add(skill);
+        }
+
+        PalSuitabilityEntity suitability = new PalSuitabilityEntity();
+        suitability.setType("kindling");
+        suitability.setLevel(1);
+        pal.getSuitabilities().add(suitability);
+        return pal;
+    }
+}
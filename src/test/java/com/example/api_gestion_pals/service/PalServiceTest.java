@@ -2,12 +2,15 @@ package com.example.api_gestion_pals.service;
 
 import com.example.api_gestion_pals.DAO.PalDAO;
 import com.example.api_gestion_pals.model.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -27,70 +30,109 @@ class PalServiceTest {
     @Mock
     private EntityManager entityManager;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PalCatalogHolder palCatalogHolder;
+
     private PalService palService;
 
     @BeforeEach
     void setUp() {
-        palService = new PalService(palDAO, entityManager);
+        palService = new PalService(new JpaPalStore(palDAO, entityManager), palCatalogHolder, eventPublisher, new ObjectMapper());
     }
 
     @Test
     void shouldGetById() {
-        PalEntity pal = createTestPal(1, "TestPal");
-        when(palDAO.findById(1)).thenReturn(Optional.of(pal));
+        givenCatalog(createTestPal(1, "TestPal"));
 
         Optional<PalEntity> result = palService.getById(1);
 
         assertThat(result).isPresent();
         assertThat(result.get().getName()).isEqualTo("TestPal");
-        verify(palDAO).findById(1);
+        verifyNoInteractions(palDAO);
+        verify(palCatalogHolder).recordLookup(true);
     }
 
     @Test
     void shouldReturnEmptyWhenPalNotFound() {
-        when(palDAO.findById(999)).thenReturn(Optional.empty());
+        givenCatalog(createTestPal(1, "TestPal"));
 
         Optional<PalEntity> result = palService.getById(999);
 
         assertThat(result).isEmpty();
+        verify(palCatalogHolder).recordLookup(false);
     }
 
     @Test
     void shouldGetByName() {
-        PalEntity pal = createTestPal(1, "TestPal");
-        when(palDAO.findByNameIgnoreCase("TestPal")).thenReturn(Optional.of(pal));
+        givenCatalog(createTestPal(1, "TestPal"));
 
-        Optional<PalEntity> result = palService.getByName("TestPal");
+        Optional<PalEntity> result = palService.getByName("testpal");
 
         assertThat(result).isPresent();
         assertThat(result.get().getName()).isEqualTo("TestPal");
-        verify(palDAO).findByNameIgnoreCase("TestPal");
+        verifyNoInteractions(palDAO);
     }
 
     @Test
     void shouldGetByType() {
-        List<PalEntity> pals = List.of(createTestPal(1, "FirePal"));
-        when(palDAO.findByTypes_TypeIgnoreCase("fire")).thenReturn(pals);
+        PalEntity firePal = createTestPal(1, "FirePal");
+        firePal.getTypes().add(createTestType(1L, "Fire"));
+        givenCatalog(firePal, createTestPal(2, "OtherPal"));
 
         List<PalEntity> result = palService.getByType("fire");
 
         assertThat(result).hasSize(1);
         assertThat(result.get(0).getName()).isEqualTo("FirePal");
-        verify(palDAO).findByTypes_TypeIgnoreCase("fire");
+        verifyNoInteractions(palDAO);
     }
 
     @Test
     void shouldGetAll() {
-        List<PalEntity> pals = List.of(
-                createTestPal(1, "Pal1"),
-                createTestPal(2, "Pal2")
-        );
-        when(palDAO.findAll()).thenReturn(pals);
+        givenCatalog(createTestPal(2, "Pal2"), createTestPal(1, "Pal1"));
 
         List<PalEntity> result = palService.getAll();
 
-        assertThat(result).hasSize(2);
-        verify(palDAO).findAll();
+        assertThat(result).extracting(PalEntity::getId).containsExactly(1, 2);
+        verifyNoInteractions(palDAO);
+    }
+
+    @Test
+    void shouldGetPageFromDatabase() {
+        List<PalEntity> page = List.of(createTestPal(3, "Pal3"));
+        when(palDAO.findByIdGreaterThanOrderByIdAsc(2, Limit.of(10))).thenReturn(page);
+
+        List<PalEntity> result = palService.getPage(2, 10);
+
+        assertThat(result).isEqualTo(page);
+        verifyNoInteractions(palCatalogHolder);
+    }
+
+    @Test
+    void shouldVisitEveryPalChunkByChunk() {
+        when(palDAO.findByIdGreaterThanOrderByIdAsc(Integer.MIN_VALUE, Limit.of(2)))
+                .thenReturn(List.of(createTestPal(1, "Pal1"), createTestPal(2, "Pal2")));
+        when(palDAO.findByIdGreaterThanOrderByIdAsc(2, Limit.of(2)))
+                .thenReturn(List.of(createTestPal(5, "Pal5")));
+        List<Integer> visited = new ArrayList<>();
+
+        palService.forEachPal(2, pal -> visited.add(pal.getId()));
+
+        assertThat(visited).containsExactly(1, 2, 5);
+        verify(entityManager, times(2)).clear();
+    }
+
+    @Test
+    void shouldPublishPalChangedEventOnWrite() {
+        PalEntity pal = createTestPal(1, "TestPal");
+        when(palDAO.findById(1)).thenReturn(Optional.of(pal));
+        when(palDAO.save(any(PalEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        palService.addType(1, "water");
+
+        verify(eventPublisher).publishEvent(new PalChangedEvent(1));
     }
 
     @Test
@@ -124,6 +166,36 @@ class PalServiceTest {
         verify(palDAO).save(any(PalEntity.class));
     }
 
+    @Test
+    void shouldMergeChildrenByNaturalKeyOnUpdate() {
+        PalEntity existing = createTestPal(1, "ExistingPal");
+        PalTypeEntity fire = createTestType(1L, "fire");
+        PalTypeEntity water = createTestType(2L, "water");
+        PalSkillEntity fireball = createTestSkill(1L, "Fireball");
+        PalSkillEntity tackle = createTestSkill(2L, "Tackle");
+        existing.getTypes().addAll(List.of(fire, water));
+        existing.getSkills().addAll(List.of(fireball, tackle));
+
+        PalEntity updated = createTestPal(1, "ExistingPal");
+        updated.getTypes().addAll(List.of(createTestType(null, "fire"), createTestType(null, "grass")));
+        PalSkillEntity strongerFireball = createTestSkill(null, "Fireball");
+        strongerFireball.setPower(99);
+        updated.getSkills().addAll(List.of(strongerFireball, createTestSkill(null, "Ember")));
+        when(palDAO.existsById(1)).thenReturn(true);
+        when(palDAO.findById(1)).thenReturn(Optional.of(existing));
+        when(palDAO.save(any(PalEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        palService.save(updated);
+
+        // Les lignes appariées sont conservées (même instance, même id) : pas de DELETE + INSERT
+        assertThat(existing.getTypes()).extracting(PalTypeEntity::getType).containsExactly("fire", "grass");
+        assertThat(existing.getTypes().get(0)).isSameAs(fire);
+        assertThat(existing.getTypes().get(1).getPal()).isSameAs(existing);
+        assertThat(existing.getSkills()).extracting(PalSkillEntity::getName).containsExactly("Fireball", "Ember");
+        assertThat(existing.getSkills().get(0)).isSameAs(fireball);
+        assertThat(fireball.getPower()).isEqualTo(99);
+    }
+
     @Test
     void shouldDeleteById() {
         doNothing().when(palDAO).deleteById(1);
@@ -219,14 +291,27 @@ class PalServiceTest {
         pal1.setRarity(1);
         PalEntity pal2 = createTestPal(2, "RarePal");
         pal2.setRarity(5);
-        List<PalEntity> allPals = List.of(pal1, pal2);
-        when(palDAO.findAll()).thenReturn(allPals);
+        givenCatalog(pal1, pal2);
 
-        List<PalEntity> result = palService.getSortedByRarity(2);
+        List<PalEntity> result = palService.getSortedByRarity(2, 0, null);
 
         assertThat(result).hasSize(2);
         assertThat(result.get(0).getRarity()).isGreaterThan(result.get(1).getRarity());
-        verify(palDAO).findAll();
+        verifyNoInteractions(palDAO);
+    }
+
+    @Test
+    void shouldGetSortedByRarityAfterKey() {
+        PalEntity pal1 = createTestPal(1, "RarePal");
+        pal1.setRarity(5);
+        PalEntity pal2 = createTestPal(2, "OtherRarePal");
+        pal2.setRarity(5);
+        PalEntity pal3 = createTestPal(3, "CommonPal");
+        givenCatalog(pal1, pal2, pal3);
+
+        List<PalEntity> result = palService.getSortedByRarity(5, 10, 1);
+
+        assertThat(result).extracting(PalEntity::getId).containsExactly(2, 3);
     }
 
     @Test
@@ -235,14 +320,30 @@ class PalServiceTest {
         pal1.setPrice(100);
         PalEntity pal2 = createTestPal(2, "ExpensivePal");
         pal2.setPrice(1000);
-        List<PalEntity> allPals = List.of(pal1, pal2);
-        when(palDAO.findAll()).thenReturn(allPals);
+        givenCatalog(pal1, pal2);
 
-        List<PalEntity> result = palService.getSortedByPrice(2);
+        List<PalEntity> result = palService.getSortedByPrice(2, 0, null);
 
         assertThat(result).hasSize(2);
         assertThat(result.get(0).getPrice()).isGreaterThan(result.get(1).getPrice());
-        verify(palDAO).findAll();
+        verifyNoInteractions(palDAO);
+    }
+
+    @Test
+    void shouldGetSortedByPriceWithOffset() {
+        PalEntity pal1 = createTestPal(1, "CheapPal");
+        pal1.setPrice(100);
+        PalEntity pal2 = createTestPal(2, "ExpensivePal");
+        pal2.setPrice(1000);
+        givenCatalog(pal1, pal2);
+
+        List<PalEntity> result = palService.getSortedByPrice(5, 1, null);
+
+        assertThat(result).extracting(PalEntity::getId).containsExactly(1);
+    }
+
+    private void givenCatalog(PalEntity... pals) {
+        when(palCatalogHolder.current()).thenReturn(PalCatalog.of(List.of(pals)));
     }
 
     // Méthodes utilitaires pour créer des entités de test